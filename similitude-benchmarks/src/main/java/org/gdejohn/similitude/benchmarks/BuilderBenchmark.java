@@ -0,0 +1,137 @@
+package org.gdejohn.similitude.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.gdejohn.similitude.Builder;
+import org.gdejohn.similitude.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Builder#instantiate(TypeToken)} on classes with several
+ * constructors, some of which fail.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuilderBenchmark
+{
+	/**
+	 * Only has a nullary constructor.
+	 */
+	public static final class Plain
+	{
+		int value;
+		
+		public Plain( )
+		{
+			this.value = 1;
+		}
+	}
+	
+	/**
+	 * Rejects the default values the builder passes to most of its
+	 * constructors, so that several have to be tried before one works.
+	 */
+	public static final class Picky
+	{
+		final String name;
+		
+		final int size;
+		
+		public Picky(final String NAME)
+		{
+			this(NAME, 1);
+		}
+		
+		public Picky(final int SIZE)
+		{
+			this("picky", SIZE);
+		}
+		
+		public Picky(final String NAME, final int SIZE)
+		{
+			if (NAME.isEmpty( ) || SIZE <= 0)
+			{
+				throw new IllegalArgumentException("Rejected.");
+			}
+			
+			this.name = NAME;
+			
+			this.size = SIZE;
+		}
+		
+		public Picky(final Plain PLAIN)
+		{
+			this("plain", PLAIN.value);
+		}
+	}
+	
+	/**
+	 * Generic class, instantiated through a parameterized type.
+	 * 
+	 * @param <T> The type of the value held.
+	 */
+	public static final class Holder<T>
+	{
+		final T VALUE;
+		
+		final Plain PLAIN;
+		
+		public Holder(final T VALUE, final Plain PLAIN)
+		{
+			this.VALUE = VALUE;
+			
+			this.PLAIN = PLAIN;
+		}
+	}
+	
+	private Builder builder;
+	
+	private TypeToken<Plain> plain;
+	
+	private TypeToken<Picky> picky;
+	
+	private TypeToken<Holder<String>> holder;
+	
+	@Setup
+	public void setUp( )
+	{
+		builder = new Builder( );
+		
+		plain = new TypeToken<Plain>( ) { };
+		
+		picky = new TypeToken<Picky>( ) { };
+		
+		holder = new TypeToken<Holder<String>>( ) { };
+	}
+	
+	@Benchmark
+	public Plain plain( )
+	{
+		return builder.instantiate(plain);
+	}
+	
+	@Benchmark
+	public Picky picky( )
+	{
+		return builder.instantiate(picky);
+	}
+	
+	@Benchmark
+	public Holder<String> holder( )
+	{
+		return builder.instantiate(holder);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,216 @@
+package org.gdejohn.similitude.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.gdejohn.similitude.Cloner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Cloner#toClone(Object)} on representative object graphs.
+ * 
+ * Each graph is built once per trial, and cloned by a single cloner, so the
+ * numbers include everything a long-lived cloner does per call, but not
+ * building its clone plans for the first time.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClonerBenchmark
+{
+	/**
+	 * Flat data transfer object, only primitive, immutable and enum fields.
+	 */
+	public static final class Dto
+	{
+		enum Status {ACTIVE, INACTIVE}
+		
+		long id;
+		
+		int version;
+		
+		double balance;
+		
+		boolean verified;
+		
+		char grade;
+		
+		String name;
+		
+		String email;
+		
+		Integer age;
+		
+		Status status;
+		
+		Dto(final long ID)
+		{
+			this.id = ID;
+			this.version = 3;
+			this.balance = 1234.5;
+			this.verified = true;
+			this.grade = 'A';
+			this.name = "name" + ID;
+			this.email = "name" + ID + "@example.com";
+			this.age = 42;
+			this.status = Status.ACTIVE;
+		}
+	}
+	
+	/**
+	 * Singly linked list node, for deep graphs.
+	 * 
+	 * The nullary constructor comes first, so that the builder doesn't have
+	 * to instantiate a whole chain of nodes to satisfy the other one.
+	 */
+	public static final class Node
+	{
+		Object value;
+		
+		Node next;
+		
+		Node( )
+		{
+			this(null, null);
+		}
+		
+		Node(final Object VALUE, final Node NEXT)
+		{
+			this.value = VALUE;
+			this.next = NEXT;
+		}
+	}
+	
+	/**
+	 * Graph vertex, for graphs with cycles and shared references.
+	 */
+	public static final class Vertex
+	{
+		int id;
+		
+		Vertex[ ] edges;
+		
+		Vertex(final int ID)
+		{
+			this.id = ID;
+		}
+	}
+	
+	/**
+	 * Number of nodes, entries, elements or vertices in each graph.
+	 */
+	@Param({"1000"})
+	public int size;
+	
+	/**
+	 * How the cloner allocates clones of class types.
+	 */
+	@Param({"CONSTRUCTOR", "RAW"})
+	public Cloner.Allocation allocation;
+	
+	private Cloner cloner;
+	
+	private Dto dto;
+	
+	private Node deepList;
+	
+	private Map<String, Dto> wideMap;
+	
+	private long[ ] primitiveArray;
+	
+	private Vertex[ ] cyclicGraph;
+	
+	@Setup
+	public void setUp( )
+	{
+		cloner = new Cloner( );
+		cloner.setAllocation(allocation);
+		
+		dto = new Dto(0);
+		
+		deepList = null;
+		
+		for (int index = 0; index < size; index++)
+		{
+			deepList = new Node(new Dto(index), deepList);
+		}
+		
+		wideMap = new HashMap<String, Dto>( );
+		
+		for (int index = 0; index < size; index++)
+		{
+			wideMap.put("key" + index, new Dto(index));
+		}
+		
+		primitiveArray = new long[size];
+		
+		for (int index = 0; index < size; index++)
+		{
+			primitiveArray[index] = index * 31L;
+		}
+		
+		cyclicGraph = new Vertex[size];
+		
+		for (int index = 0; index < size; index++)
+		{
+			cyclicGraph[index] = new Vertex(index);
+		}
+		
+		for (int index = 0; index < size; index++)
+		{ // Each vertex points to its neighbors, and back to the first one.
+			cyclicGraph[index].edges =
+			(
+				new Vertex[ ]
+				{
+					cyclicGraph[(index + 1) % size],
+					cyclicGraph[(index + size - 1) % size],
+					cyclicGraph[0]
+				}
+			);
+		}
+	}
+	
+	@Benchmark
+	public Dto flatDto( )
+	{
+		return cloner.toClone(dto);
+	}
+	
+	@Benchmark
+	public Node deepList( )
+	{
+		return cloner.toClone(deepList);
+	}
+	
+	@Benchmark
+	public Map<String, Dto> wideMap( )
+	{
+		return cloner.toClone(wideMap);
+	}
+	
+	@Benchmark
+	public long[ ] primitiveArray( )
+	{
+		return cloner.toClone(primitiveArray);
+	}
+	
+	@Benchmark
+	public Vertex[ ] cyclicGraph( )
+	{
+		return cloner.toClone(cyclicGraph);
+	}
+}
\ No newline at end of file
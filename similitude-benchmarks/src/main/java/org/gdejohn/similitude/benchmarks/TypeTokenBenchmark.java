@@ -0,0 +1,117 @@
+package org.gdejohn.similitude.benchmarks;
+
+import static org.gdejohn.similitude.TypeToken.typeOf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.gdejohn.similitude.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures runtime type inference and type comparisons on nested generics.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeTokenBenchmark
+{
+	/**
+	 * Generic class whose type arguments can be inferred from its fields.
+	 * 
+	 * @param <A> The type of the first element.
+	 * @param <B> The type of the second element.
+	 */
+	public static final class Pair<A, B>
+	{
+		final A FIRST;
+		
+		final B SECOND;
+		
+		Pair(final A FIRST, final B SECOND)
+		{
+			this.FIRST = FIRST;
+			
+			this.SECOND = SECOND;
+		}
+	}
+	
+	/**
+	 * The type of {@link #nested}.
+	 */
+	private TypeToken<Pair<Pair<String, Integer>, Pair<Long, Pair<String, Double>>>> nestedType;
+	
+	/**
+	 * A supertype of the type of {@link #nested}.
+	 */
+	private TypeToken<Pair<Pair<String, Integer>, ?>> wildcardType;
+	
+	private Pair<Pair<String, Integer>, Pair<Long, Pair<String, Double>>> nested;
+	
+	private TypeToken<?> inferred;
+	
+	@Setup
+	public void setUp( )
+	{
+		nestedType =
+		(
+			new TypeToken<Pair<Pair<String, Integer>, Pair<Long, Pair<String, Double>>>>( ) { }
+		);
+		
+		wildcardType = new TypeToken<Pair<Pair<String, Integer>, ?>>( ) { };
+		
+		nested =
+		(
+			new Pair<Pair<String, Integer>, Pair<Long, Pair<String, Double>>>
+			(
+				new Pair<String, Integer>("xyzzy", 42),
+				new Pair<Long, Pair<String, Double>>
+				(
+					7L, new Pair<String, Double>("plugh", 2.5)
+				)
+			)
+		);
+		
+		inferred = typeOf(nested);
+		
+		if (nestedType.isAssignableFrom(inferred) == false)
+		{
+			throw new IllegalStateException("Inferred " + inferred);
+		}
+	}
+	
+	@Benchmark
+	public TypeToken<?> typeOfNested( )
+	{
+		return typeOf(nested);
+	}
+	
+	@Benchmark
+	public boolean isAssignableFrom( )
+	{
+		return nestedType.isAssignableFrom(inferred);
+	}
+	
+	@Benchmark
+	public boolean isAssignableFromWildcard( )
+	{
+		return wildcardType.isAssignableFrom(inferred);
+	}
+	
+	@Benchmark
+	public boolean isInstance( )
+	{
+		return nestedType.isInstance(nested);
+	}
+}
\ No newline at end of file
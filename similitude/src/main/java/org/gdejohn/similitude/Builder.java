@@ -3,6 +3,8 @@ package org.gdejohn.similitude;
 import static java.lang.Math.nextUp;
 import static java.lang.reflect.Array.newInstance;
 import static java.lang.reflect.Modifier.isAbstract;
+import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Proxy.getProxyClass;
 import static java.lang.reflect.Proxy.newProxyInstance;
 import static java.util.Collections.unmodifiableMap;
 import static org.gdejohn.similitude.Cloner.BASIC_TYPES;
@@ -14,8 +16,12 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 
@@ -122,29 +128,442 @@ public final class Builder
 	}
 	
 	/**
-	 * Immutable types, mapped to default values.
+	 * How to instantiate a class type, recorded the first time it's
+	 * instantiated successfully.
+	 * 
+	 * @param <T> The class type.
+	 */
+	private static final class Recipe<T>
+	{
+		/**
+		 * The constructor that worked.
+		 */
+		final Constructor<T> CONSTRUCTOR;
+		
+		/**
+		 * The type to instantiate for each argument, or {@code null} where
+		 * instantiating the argument failed, and {@code null} was passed
+		 * instead.
+		 */
+		final TypeToken<?>[ ] ARGUMENT_TYPES;
+		
+		/**
+		 * The number of leading synthetic arguments for enclosing instances,
+		 * which must be instantiated successfully.
+		 */
+		final int OFFSET;
+		
+		/**
+		 * {@code true} if replaying instantiates class types of its own, which
+		 * might lead back to the recipe's type, so replays need the same
+		 * recursion guard as constructor searches.
+		 */
+		final boolean NESTED;
+		
+		Recipe(final Constructor<T> CONSTRUCTOR, final TypeToken<?>[ ] ARGUMENT_TYPES, final int OFFSET, final boolean NESTED)
+		{
+			this.CONSTRUCTOR = CONSTRUCTOR;
+			
+			this.ARGUMENT_TYPES = ARGUMENT_TYPES;
+			
+			this.OFFSET = OFFSET;
+			
+			this.NESTED = NESTED;
+		}
+	}
+	
+	/**
+	 * The class types that are being instantiated, as part of a single call
+	 * to {@link #instantiate(TypeToken)}, either by searching for a
+	 * constructor that works, or by replaying a recipe that instantiates
+	 * class types of its own.
+	 * 
+	 * Only created once one of those starts, so that replaying a recipe
+	 * whose arguments are all base cases doesn't allocate anything extra.
+	 */
+	private static final class Search
+	{
+		/**
+		 * The class types being instantiated, outermost first.
+		 */
+		final List<TypeToken<?>> TYPES = new ArrayList<TypeToken<?>>( );
+		
+		/**
+		 * The index in {@link #TYPES} of the outermost type that was refused
+		 * by the recursion guard since the innermost search started, or
+		 * {@link Integer#MAX_VALUE} if none was.
+		 * 
+		 * A search that records a recipe must not have been cut short by a
+		 * type further out than its own, since a null argument passed for it
+		 * would only be needed because of where the search was started from.
+		 */
+		int reach = Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * A snapshot of the immutable defaults, along with the recipes that were
+	 * recorded with them.
+	 * 
+	 * Never modified once it's been published. Instead, every change to the
+	 * immutable defaults replaces the whole snapshot, so it can be read from
+	 * any thread without locking, and recipes recorded with one set of
+	 * defaults are never replayed with another.
+	 */
+	private static final class Defaults
+	{
+		/**
+		 * Immutable types, mapped to default values. Read-only.
+		 */
+		final Map<TypeToken<?>, Object> VALUES;
+		
+		/**
+		 * Class types that have been instantiated, mapped to their recipes.
+		 */
+		final ConcurrentMap<TypeToken<?>, Recipe<?>> RECIPES =
+		(
+			new ConcurrentHashMap<TypeToken<?>, Recipe<?>>( )
+		);
+		
+		Defaults(final Map<TypeToken<?>, Object> VALUES)
+		{
+			this.VALUES =
+			(
+				unmodifiableMap(new LinkedHashMap<TypeToken<?>, Object>(VALUES))
+			);
+		}
+	}
+	
+	/**
+	 * The current immutable defaults and recipes.
 	 * 
 	 * Initialized to include the wrapper types and {@code String}.
 	 * 
 	 * @see Cloner#BASIC_TYPES
 	 */
-	private final Map<TypeToken<?>, Object> IMMUTABLE_DEFAULTS;
+	private volatile Defaults defaults = new Defaults(BASIC_TYPES);
+	
+	/**
+	 * Held while changing the immutable defaults, so that concurrent changes
+	 * aren't lost.
+	 */
+	private final Object DEFAULTS = new Object( );
+	
+	/**
+	 * Interfaces mapped to the constructors of their proxy classes, or {@code
+	 * null} where a constructor couldn't be looked up.
+	 */
+	private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS =
+	(
+		new ClassValue<Constructor<?>>( )
+		{
+			@Override
+			@SuppressWarnings("deprecation")
+			protected Constructor<?> computeValue(final Class<?> INTERFACE)
+			{
+				try
+				{
+					final Class<?> PROXY_CLASS =
+					(
+						getProxyClass(INTERFACE.getClassLoader( ), INTERFACE)
+					);
+					
+					final Constructor<?> CONSTRUCTOR =
+					(
+						PROXY_CLASS.getConstructor(InvocationHandler.class)
+					);
+					
+					if (isPublic(PROXY_CLASS.getModifiers( )) == false)
+					{
+						CONSTRUCTOR.setAccessible(true);
+					}
+					
+					return CONSTRUCTOR;
+				}
+				catch (Exception e)
+				{
+					LOGGER.debug
+					(
+						"Couldn't look up proxy constructor for interface {}.",
+						INTERFACE.getSimpleName( ),
+						e
+					);
+					
+					return null;
+				}
+			}
+		}
+	);
+	
+	/**
+	 * Creates a new proxy for a given interface, with the cached constructor
+	 * of its proxy class.
+	 * 
+	 * @param INTERFACE The interface for the proxy to implement.
+	 * @param HANDLER The invocation handler for the new proxy.
+	 * 
+	 * @return A new proxy implementing {@code INTERFACE}.
+	 */
+	static <T> T newProxy(final Class<T> INTERFACE, final InvocationHandler HANDLER)
+	{
+		final Constructor<?> CONSTRUCTOR = PROXY_CONSTRUCTORS.get(INTERFACE);
+		
+		if (CONSTRUCTOR != null)
+		{
+			try
+			{
+				return INTERFACE.cast(CONSTRUCTOR.newInstance(HANDLER));
+			}
+			catch (Exception e)
+			{ // Fall back to looking up the proxy class again.
+				LOGGER.debug
+				(
+					"Cached proxy constructor for interface {} failed.",
+					INTERFACE.getSimpleName( ),
+					e
+				);
+			}
+		}
+		
+		return
+		(
+			INTERFACE.cast
+			(
+				newProxyInstance
+				(
+					INTERFACE.getClassLoader( ),
+					new Class<?>[ ] {INTERFACE},
+					HANDLER
+				)
+			)
+		);
+	}
 	
-	{ // Instance initializer, executes at the beginning of every constructor.
-		IMMUTABLE_DEFAULTS =
+	/**
+	 * What every proxy for a given interface type has in common.
+	 * 
+	 * @param <T> The interface type.
+	 */
+	private static final class ProxyType<T>
+	{
+		/**
+		 * The interface type.
+		 */
+		final TypeToken<T> TYPE;
+		
+		/**
+		 * Methods without type parameters, mapped to their return types, which
+		 * don't depend on any arguments.
+		 */
+		private final ConcurrentMap<Method, TypeToken<?>> RETURN_TYPES =
 		(
-			new LinkedHashMap<TypeToken<?>, Object>(BASIC_TYPES)
+			new ConcurrentHashMap<Method, TypeToken<?>>( )
 		);
+		
+		ProxyType(final TypeToken<T> TYPE)
+		{
+			this.TYPE = TYPE;
+		}
+		
+		/**
+		 * Creates a new proxy.
+		 * 
+		 * @param HANDLER The invocation handler for the new proxy.
+		 * 
+		 * @return A new proxy of {@code this} interface type.
+		 */
+		T newProxy(final InvocationHandler HANDLER)
+		{
+			return Builder.newProxy(TYPE.getRawType( ), HANDLER);
+		}
+		
+		/**
+		 * Gets the return type of a given method, given the arguments it was
+		 * invoked with.
+		 * 
+		 * @param METHOD The invoked method.
+		 * @param ARGUMENTS The arguments it was invoked with.
+		 * 
+		 * @return The return type of {@code METHOD}.
+		 * 
+		 * @see TypeToken#getReturnType(Method, Object...)
+		 */
+		TypeToken<?> getReturnType(final Method METHOD, final Object[ ] ARGUMENTS)
+		{
+			if (METHOD.getTypeParameters( ).length > 0)
+			{ // Might depend on the arguments.
+				return TYPE.getReturnType(METHOD, ARGUMENTS);
+			}
+			
+			final TypeToken<?> RETURN_TYPE = RETURN_TYPES.get(METHOD);
+			
+			if (RETURN_TYPE == null)
+			{
+				final TypeToken<?> RESOLVED = TYPE.getReturnType(METHOD);
+				
+				final TypeToken<?> EXISTING =
+				(
+					RETURN_TYPES.putIfAbsent(METHOD, RESOLVED)
+				);
+				
+				return EXISTING == null ? RESOLVED : EXISTING;
+			}
+			else
+			{
+				return RETURN_TYPE;
+			}
+		}
+	}
+	
+	/**
+	 * Handles invocations on a single proxy by instantiating the return type
+	 * of the invoked method.
+	 */
+	private final class ProxyHandler implements InvocationHandler
+	{
+		final ProxyType<?> PROXY_TYPE;
+		
+		/**
+		 * Methods without parameters, mapped to the results they've returned,
+		 * or {@code null} if results aren't memoized.
+		 */
+		private final ConcurrentMap<Method, Object> RESULTS;
+		
+		ProxyHandler(final ProxyType<?> PROXY_TYPE, final boolean MEMOIZING)
+		{
+			this.PROXY_TYPE = PROXY_TYPE;
+			
+			this.RESULTS =
+			(
+				MEMOIZING ? new ConcurrentHashMap<Method, Object>( ) : null
+			);
+		}
+		
+		@Override
+		public Object invoke(final Object PROXY, final Method METHOD, final Object[ ] ARGUMENTS)
+		{
+			if (RESULTS == null || METHOD.getParameterCount( ) > 0)
+			{
+				return
+				(
+					instantiate(PROXY_TYPE.getReturnType(METHOD, ARGUMENTS))
+				);
+			}
+			
+			final Object RESULT = RESULTS.get(METHOD);
+			
+			if (RESULT == null)
+			{
+				final Object INSTANTIATED =
+				(
+					instantiate(PROXY_TYPE.getReturnType(METHOD, ARGUMENTS))
+				);
+				
+				if (INSTANTIATED == null)
+				{
+					return null;
+				}
+				
+				/*
+				 * If another thread invoked METHOD first, return its result
+				 * instead, so every invocation returns the same one.
+				 */
+				final Object EXISTING = RESULTS.putIfAbsent(METHOD, INSTANTIATED);
+				
+				return EXISTING == null ? INSTANTIATED : EXISTING;
+			}
+			else
+			{
+				return RESULT;
+			}
+		}
+	}
+	
+	/**
+	 * Interface types that have been instantiated, mapped to what their
+	 * proxies have in common.
+	 */
+	private final ConcurrentMap<TypeToken<?>, ProxyType<?>> PROXY_TYPES =
+	(
+		new ConcurrentHashMap<TypeToken<?>, ProxyType<?>>( )
+	);
+	
+	/**
+	 * Whether proxies created from now on memoize the results of methods
+	 * without parameters.
+	 */
+	private volatile boolean memoizingProxyResults = false;
+	
+	/**
+	 * @return {@code true} if proxies created by {@code this} builder memoize the results of methods without parameters.
+	 * 
+	 * @see #setMemoizingProxyResults(boolean)
+	 */
+	public boolean isMemoizingProxyResults( )
+	{
+		return memoizingProxyResults;
+	}
+	
+	/**
+	 * Sets whether proxies created from now on memoize the results of methods
+	 * without parameters.
+	 * 
+	 * Proxies for interface types instantiate the return type of each method
+	 * every time it's invoked, so {@code hashCode( )}, for example, returns a
+	 * new {@code Integer} every time. A memoizing proxy only does that the
+	 * first time each method without parameters is invoked, and returns the
+	 * same result from then on. Methods with parameters are never memoized.
+	 * Proxies that have already been created aren't affected.
+	 * 
+	 * @param MEMOIZING {@code true} to memoize results, {@code false} to instantiate them every time.
+	 */
+	public void setMemoizingProxyResults(final boolean MEMOIZING)
+	{
+		this.memoizingProxyResults = MEMOIZING;
+	}
+	
+	/**
+	 * Gets what every proxy for a given interface type has in common,
+	 * creating it if necessary.
+	 * 
+	 * @param TYPE The interface type.
+	 * 
+	 * @return The proxy type for {@code TYPE}.
+	 */
+	private <T> ProxyType<T> getProxyType(final TypeToken<T> TYPE)
+	{
+		/*
+		 * Proxy types are only ever mapped to by the types they were created
+		 * for.
+		 */
+		@SuppressWarnings("unchecked")
+		final ProxyType<T> PROXY_TYPE = (ProxyType<T>)PROXY_TYPES.get(TYPE);
+		
+		if (PROXY_TYPE == null)
+		{
+			final ProxyType<T> CREATED = new ProxyType<T>(TYPE);
+			
+			@SuppressWarnings("unchecked")
+			final ProxyType<T> EXISTING =
+			(
+				(ProxyType<T>)PROXY_TYPES.putIfAbsent(TYPE, CREATED)
+			);
+			
+			return EXISTING == null ? CREATED : EXISTING;
+		}
+		else
+		{
+			return PROXY_TYPE;
+		}
 	}
 	
 	/**
-	 * Gets a read-only view of {@code this} builder's immutable defaults.
+	 * Gets a read-only snapshot of {@code this} builder's immutable defaults.
 	 * 
-	 * @return A read-only view of {@code this} builder's immutable defaults.
+	 * @return A read-only snapshot of {@code this} builder's immutable defaults.
 	 */
 	public Map<TypeToken<?>, Object> getAllDefaults( )
 	{
-		return unmodifiableMap(IMMUTABLE_DEFAULTS);
+		return defaults.VALUES;
 	}
 	
 	/**
@@ -156,7 +575,7 @@ public final class Builder
 	 */
 	public boolean hasDefault(final TypeToken<?> TYPE)
 	{
-		return IMMUTABLE_DEFAULTS.containsKey(TYPE);
+		return defaults.VALUES.containsKey(TYPE);
 	}
 
 	/**
@@ -176,13 +595,7 @@ public final class Builder
 	{
 		final Class<T> CLASS = TYPE.getRawType( );
 		
-		LOGGER.debug
-		(
-			"Getting default value for type {}.",
-			CLASS.getSimpleName( )
-		);
-		
-		return CLASS.cast(IMMUTABLE_DEFAULTS.get(TYPE));
+		return CLASS.cast(defaults.VALUES.get(TYPE));
 	}
 	
 	/**
@@ -229,7 +642,19 @@ public final class Builder
 		}
 		else
 		{
-			return IMMUTABLE_DEFAULTS.put(TYPE, VALUE);
+			synchronized (DEFAULTS)
+			{
+				final Map<TypeToken<?>, Object> COPY =
+				(
+					new LinkedHashMap<TypeToken<?>, Object>(defaults.VALUES)
+				);
+				
+				final Object PREVIOUS = COPY.put(TYPE, VALUE);
+				
+				defaults = new Defaults(COPY);
+				
+				return PREVIOUS;
+			}
 		}
 	}
 	
@@ -242,7 +667,24 @@ public final class Builder
 	 */
 	public Object removeDefault(final TypeToken<?> TYPE)
 	{
-		return IMMUTABLE_DEFAULTS.remove(TYPE);
+		synchronized (DEFAULTS)
+		{
+			if (defaults.VALUES.containsKey(TYPE) == false)
+			{
+				return null;
+			}
+			
+			final Map<TypeToken<?>, Object> COPY =
+			(
+				new LinkedHashMap<TypeToken<?>, Object>(defaults.VALUES)
+			);
+			
+			final Object PREVIOUS = COPY.remove(TYPE);
+			
+			defaults = new Defaults(COPY);
+			
+			return PREVIOUS;
+		}
 	}
 	
 	/**
@@ -256,10 +698,22 @@ public final class Builder
 	 */
 	public boolean reset( )
 	{
-		final boolean CHANGED =
-		(
-			IMMUTABLE_DEFAULTS.keySet( ).retainAll(BASIC_TYPES.keySet( ))
-		);
+		final boolean CHANGED;
+		
+		synchronized (DEFAULTS)
+		{
+			final Map<TypeToken<?>, Object> COPY =
+			(
+				new LinkedHashMap<TypeToken<?>, Object>(defaults.VALUES)
+			);
+			
+			CHANGED = COPY.keySet( ).retainAll(BASIC_TYPES.keySet( ));
+			
+			if (CHANGED)
+			{
+				defaults = new Defaults(COPY);
+			}
+		}
 		
 		LOGGER.debug
 		(
@@ -283,11 +737,31 @@ public final class Builder
 	 * @throws InstantiationFailedException If instantiating {@code TYPE} fails for any reason.
 	 */
 	public <T> T instantiate(final TypeToken<T> TYPE)
+	{
+		return instantiate(TYPE, null);
+	}
+	
+	/**
+	 * Creates an instance of the given type, as part of instantiating the
+	 * given class types.
+	 * 
+	 * Class types are instantiated by recursively instantiating arguments for
+	 * their constructors. If a constructor needs an argument of a class type
+	 * that's already being instantiated, such as a linked list node that
+	 * takes the next node, instantiating that argument fails, and {@code
+	 * null} is passed instead, rather than recursing forever.
+	 * 
+	 * @param TYPE The type to instantiate.
+	 * @param SEARCH The class types being instantiated with constructors, or {@code null} if none are.
+	 * 
+	 * @return An instance of {@code TYPE}.
+	 * 
+	 * @throws InstantiationFailedException If instantiating {@code TYPE} fails for any reason.
+	 */
+	private <T> T instantiate(final TypeToken<T> TYPE, final Search SEARCH)
 	{
 		if (TYPE == null)
 		{
-			LOGGER.debug("Class argument is null.");
-			
 			return null;
 		}
 		
@@ -310,11 +784,6 @@ public final class Builder
 		}
 		else if (CLASS.isEnum( ))
 		{ // Base case, return first declared constant.
-			LOGGER.debug
-			(
-				"Instantiating enum type: {}", CLASS.getSimpleName( )
-			);
-			
 			try
 			{
 				return CLASS.getEnumConstants( )[0];
@@ -338,31 +807,15 @@ public final class Builder
 		}
 		else if (CLASS.isInterface( ))
 		{ // Base case, return dynamic proxy.
-			LOGGER.debug
-			(
-				"Creating proxy for interface {}.", CLASS.getSimpleName( )
-			);
-			
-			final ClassLoader LOADER = CLASS.getClassLoader( );
+			final ProxyType<T> PROXY_TYPE = getProxyType(TYPE);
 			
-			final Class<?>[ ] INTERFACES = new Class<?>[ ] {CLASS};
-			
-			final InvocationHandler HANDLER =
+			return
 			(
-				new InvocationHandler( )
-				{
-					@Override
-					public Object invoke(final Object PROXY, final Method METHOD, final Object[ ] ARGUMENTS)
-					{
-						return
-						(
-							instantiate(TYPE.getReturnType(METHOD, ARGUMENTS))
-						);
-					}
-				}
+				PROXY_TYPE.newProxy
+				(
+					new ProxyHandler(PROXY_TYPE, memoizingProxyResults)
+				)
 			);
-			
-			return CLASS.cast(newProxyInstance(LOADER, INTERFACES, HANDLER));
 		}
 		else if (isAbstract(CLASS.getModifiers( )))
 		{
@@ -377,183 +830,463 @@ public final class Builder
 			);
 		}
 		else
-		{ // Concrete class type, try constructors until one works.
-			LOGGER.debug
-			(
-				"Instantiating class type: {}", CLASS.getSimpleName( )
-			);
+		{
+			return instantiateClassType(TYPE, SEARCH);
+		}
+	}
+	
+	/**
+	 * Replays a given recipe.
+	 * 
+	 * @param RECIPE The recipe to replay.
+	 * @param SEARCH The class types being instantiated with constructors, or {@code null} if none are.
+	 * 
+	 * @return A new instance, made with the recipe's constructor.
+	 * 
+	 * @throws InstantiationFailedException If the constructor fails this time.
+	 */
+	private <T> T replay(final Recipe<T> RECIPE, final Search SEARCH)
+	{
+		final TypeToken<?>[ ] ARGUMENT_TYPES = RECIPE.ARGUMENT_TYPES;
+		
+		final Object[ ] ARGUMENTS = new Object[ARGUMENT_TYPES.length];
+		
+		for (int index = 0; index < RECIPE.OFFSET; index++)
+		{
+			ARGUMENTS[index] = instantiate(ARGUMENT_TYPES[index], SEARCH);
+		}
+		
+		for (int index = RECIPE.OFFSET; index < ARGUMENTS.length; index++)
+		{
+			if (ARGUMENT_TYPES[index] == null)
+			{ // Failed when the recipe was recorded.
+				continue;
+			}
 			
-			for (final Constructor<T> CONSTRUCTOR : TYPE.getAccessibleConstructors( ))
+			try
+			{
+				ARGUMENTS[index] =
+				(
+					instantiate(ARGUMENT_TYPES[index], SEARCH)
+				);
+			}
+			catch (InstantiationFailedException e)
 			{
 				LOGGER.debug
 				(
-					"Found constructor: {}", CONSTRUCTOR.toGenericString( )
+					"Couldn't instantiate parameter, using null.", e
 				);
+			}
+		}
+		
+		final Tracer TRACER = Tracing.tracer;
+		
+		try
+		{
+			final T INSTANCE = RECIPE.CONSTRUCTOR.newInstance(ARGUMENTS);
+			
+			trace(TRACER, RECIPE.CONSTRUCTOR, null);
+			
+			return INSTANCE;
+		}
+		catch (InvocationTargetException e)
+		{
+			throw replayFailed(TRACER, RECIPE, e);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw replayFailed(TRACER, RECIPE, e);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw replayFailed(TRACER, RECIPE, e);
+		}
+		catch (InstantiationException e)
+		{
+			throw replayFailed(TRACER, RECIPE, e);
+		}
+	}
+	
+	/**
+	 * Reports a constructor attempt to a given tracer, if there is one.
+	 * 
+	 * @param TRACER The installed tracer, or {@code null} if none is.
+	 * @param CONSTRUCTOR The constructor that was invoked.
+	 * @param FAILURE Why it failed, or {@code null} if it didn't.
+	 */
+	private static void trace(final Tracer TRACER, final Constructor<?> CONSTRUCTOR, final Throwable FAILURE)
+	{
+		if (TRACER != null)
+		{
+			TRACER.constructorTried(CONSTRUCTOR, FAILURE);
+		}
+	}
+	
+	/**
+	 * Reports that replaying a given recipe failed.
+	 * 
+	 * @param TRACER The installed tracer, or {@code null} if none is.
+	 * @param RECIPE The recipe that failed.
+	 * @param CAUSE Why its constructor failed.
+	 * 
+	 * @return An exception to throw.
+	 */
+	private static InstantiationFailedException replayFailed(final Tracer TRACER, final Recipe<?> RECIPE, final Exception CAUSE)
+	{
+		trace(TRACER, RECIPE.CONSTRUCTOR, CAUSE);
+		
+		return new InstantiationFailedException(CAUSE, "Replaying recipe failed.");
+	}
+	
+	/**
+	 * Creates an instance of the given concrete class type.
+	 * 
+	 * The first time a type is instantiated, its constructors are tried until
+	 * one works, and what worked is recorded as a {@link Recipe}, which is
+	 * simply replayed from then on. If replaying a recipe ever fails, it's
+	 * discarded, and the constructors are tried again. Recipes are only
+	 * recorded if no argument was cut short because some type further out
+	 * was already being instantiated.
+	 * 
+	 * @param TYPE The class type to instantiate.
+	 * @param SEARCH The class types being instantiated with constructors, or {@code null} if none are.
+	 * 
+	 * @return An instance of {@code TYPE}.
+	 * 
+	 * @throws InstantiationFailedException If instantiating {@code TYPE} fails for any reason.
+	 */
+	private <T> T instantiateClassType(final TypeToken<T> TYPE, final Search SEARCH)
+	{
+		final Class<T> CLASS = TYPE.getRawType( );
+		
+		final ConcurrentMap<TypeToken<?>, Recipe<?>> RECIPES =
+		(
+			defaults.RECIPES
+		);
+		
+		/*
+		 * Recipes are only ever mapped to by the types they were recorded for.
+		 */
+		@SuppressWarnings("unchecked")
+		final Recipe<T> RECIPE = (Recipe<T>)RECIPES.get(TYPE);
+		
+		if (RECIPE != null && RECIPE.NESTED == false)
+		{ // Can't recurse, so no need to guard against it.
+			try
+			{
+				return replay(RECIPE, SEARCH);
+			}
+			catch (InstantiationFailedException e)
+			{
+				LOGGER.debug("Recipe failed, trying constructors again.", e);
 				
+				RECIPES.remove(TYPE, RECIPE);
+			}
+		}
+		
+		final Search CURRENT = (SEARCH == null) ? new Search( ) : SEARCH;
+		
+		final int OUTER = CURRENT.TYPES.indexOf(TYPE);
+		
+		if (OUTER >= 0)
+		{ // Recursion guard, TYPE is already being instantiated further out.
+			CURRENT.reach = Math.min(CURRENT.reach, OUTER);
+			
+			throw
+			(
+				new InstantiationFailedException
+				(
+					"Class %s is already being instantiated.",
+					CLASS.getSimpleName( )
+				)
+			);
+		}
+		
+		final int DEPTH = CURRENT.TYPES.size( );
+		
+		final int REACH = CURRENT.reach;
+		
+		CURRENT.TYPES.add(TYPE);
+		
+		CURRENT.reach = Integer.MAX_VALUE;
+		
+		try
+		{
+			if (RECIPE != null && RECIPE.NESTED)
+			{
 				try
 				{
-					final Class<?>[ ] PARAMETERS =
-					(
-						CONSTRUCTOR.getParameterTypes( )
-					);
+					return replay(RECIPE, CURRENT);
+				}
+				catch (InstantiationFailedException e)
+				{
+					LOGGER.debug("Recipe failed, trying constructors again.", e);
 					
-					final Type[ ] GENERIC_PARAMETERS =
-					(
-						CONSTRUCTOR.getGenericParameterTypes( )
-					);
+					RECIPES.remove(TYPE, RECIPE);
+				}
+			}
+			
+			/*
+			 * No recipe yet, try constructors until one works.
+			 */
+			return searchConstructors(TYPE, CURRENT, DEPTH);
+		}
+		finally
+		{
+			CURRENT.TYPES.remove(DEPTH);
+			
+			CURRENT.reach = Math.min(REACH, CURRENT.reach);
+		}
+	}
+	
+	/**
+	 * Checks if instantiating a given type means instantiating a concrete
+	 * class type, rather than one of the base cases.
+	 * 
+	 * @param TYPE The type to check, or {@code null}.
+	 * @param DEFAULTS The immutable defaults to check against.
+	 * 
+	 * @return {@code true} if {@code TYPE} would be instantiated with one of its constructors, else {@code false}.
+	 */
+	private static boolean isClassType(final TypeToken<?> TYPE, final Defaults DEFAULTS)
+	{
+		if (TYPE == null || DEFAULTS.VALUES.containsKey(TYPE))
+		{
+			return false;
+		}
+		
+		final Class<?> CLASS = TYPE.getRawType( );
+		
+		return
+		(
+			CLASS.isPrimitive( ) == false &&
+			CLASS.isEnum( ) == false &&
+			CLASS.isArray( ) == false &&
+			CLASS.isInterface( ) == false
+		);
+	}
+	
+	/**
+	 * Tries the constructors of a given class type until one works, and
+	 * records what worked as a recipe, unless it depended on where the search
+	 * was started from.
+	 * 
+	 * @param TYPE The class type to instantiate.
+	 * @param SEARCH The class types being instantiated with constructors, ending with {@code TYPE}.
+	 * @param DEPTH The index of {@code TYPE} in {@code SEARCH}.
+	 * 
+	 * @return An instance of {@code TYPE}.
+	 * 
+	 * @throws InstantiationFailedException If instantiating {@code TYPE} fails for any reason.
+	 */
+	private <T> T searchConstructors(final TypeToken<T> TYPE, final Search SEARCH, final int DEPTH)
+	{
+		final Class<T> CLASS = TYPE.getRawType( );
+		
+		final Defaults DEFAULTS = defaults;
+		
+		final Tracer TRACER = Tracing.tracer;
+		
+		for (final Constructor<T> CONSTRUCTOR : TYPE.getAccessibleConstructors( ))
+		{
+			try
+			{
+				final Class<?>[ ] PARAMETERS =
+				(
+					CONSTRUCTOR.getParameterTypes( )
+				);
+				
+				final Type[ ] GENERIC_PARAMETERS =
+				(
+					CONSTRUCTOR.getGenericParameterTypes( )
+				);
+				
+				final Object[ ] ARGUMENTS =
+				(
+					new Object[PARAMETERS.length]
+				);
+				
+				final TypeToken<?>[ ] ARGUMENT_TYPES =
+				(
+					new TypeToken<?>[PARAMETERS.length]
+				);
+				
+				/*
+				 * Workaround for inner class bug where synthetic parameter
+				 * for enclosing instance isn't reflected in the generic
+				 * parameters. This will continue working when the bug is
+				 * fixed, no changes required.
+				 * 
+				 * http://bugs.sun.com/view_bug.do?bug_id=5087240
+				 */
+				final int OFFSET =
+				(
+					PARAMETERS.length - GENERIC_PARAMETERS.length
+				);
+				
+				if (OFFSET == 1)
+				{
+					ARGUMENT_TYPES[0] = typeOf(PARAMETERS[0], TYPE);
 					
-					final Object[ ] ARGUMENTS =
+					ARGUMENTS[0] =
 					(
-						new Object[PARAMETERS.length]
+						instantiate(ARGUMENT_TYPES[0], SEARCH)
 					);
-					
-					/*
-					 * Workaround for inner class bug where synthetic parameter
-					 * for enclosing instance isn't reflected in the generic
-					 * parameters. This will continue working when the bug is
-					 * fixed, no changes required.
-					 * 
-					 * http://bugs.sun.com/view_bug.do?bug_id=5087240
-					 */
-					final int OFFSET =
+				}
+				else if (OFFSET != 0)
+				{
+					LOGGER.error
 					(
-						PARAMETERS.length - GENERIC_PARAMETERS.length
+						"Unexpected discrepancy between raw parameters and generic parameters.\n{}\n{}",
+						PARAMETERS,
+						GENERIC_PARAMETERS
 					);
 					
-					if (OFFSET == 1)
+					throw new RuntimeException("");
+				}
+				
+				/*
+				 * Recursively instantiate arguments to satisfy the current
+				 * constructor's parameters.
+				 */
+				for (int index = OFFSET; index < PARAMETERS.length; index++)
+				{
+					try
 					{
-						ARGUMENTS[0] =
+						ARGUMENT_TYPES[index] =
 						(
-							instantiate(typeOf(PARAMETERS[0], TYPE))
+							typeOf(GENERIC_PARAMETERS[index], TYPE)
+						);
+						
+						ARGUMENTS[index] =
+						(
+							instantiate(ARGUMENT_TYPES[index], SEARCH)
 						);
 					}
-					else if (OFFSET != 0)
+					catch (InstantiationFailedException e)
 					{
-						LOGGER.error
+						LOGGER.debug
 						(
-							"Unexpected discrepancy between raw parameters and generic parameters.\n{}\n{}",
-							PARAMETERS,
-							GENERIC_PARAMETERS
+							"Couldn't instantiate parameter, using null.",
+							e
 						);
 						
-						throw new RuntimeException("");
+						/*
+						 * Pass null to the constructor for the current
+						 * parameter.
+						 */
+						ARGUMENTS[index] = null;
+						
+						ARGUMENT_TYPES[index] = null;
+						
+						continue;
 					}
+				}
+				
+				/*
+				 * If newInstance() completes normally, then instantiation
+				 * was successful, and the result is returned, skipping the
+				 * rest of the loop. If an exception is thrown at any point
+				 * in this try block, it's caught and logged, and the loop
+				 * continues, trying the next constructor.
+				 */
+				final T INSTANCE = CONSTRUCTOR.newInstance(ARGUMENTS);
+				
+				trace(TRACER, CONSTRUCTOR, null);
+				
+				if (SEARCH.reach >= DEPTH)
+				{ // Only cut short by TYPE itself or types it led to, if at all.
+					boolean nested = false;
 					
-					/*
-					 * Recursively instantiate arguments to satisfy the current
-					 * constructor's parameters.
-					 */
-					for (int index = OFFSET; index < PARAMETERS.length; index++)
+					for (final TypeToken<?> ARGUMENT_TYPE : ARGUMENT_TYPES)
 					{
-						try
+						if (isClassType(ARGUMENT_TYPE, DEFAULTS))
 						{
-							ARGUMENTS[index] =
-							(
-								instantiate
-								(
-									typeOf(GENERIC_PARAMETERS[index], TYPE)
-								)
-							);
+							nested = true;
 							
-							LOGGER.debug
-							(
-								"Successfully instantiated {} parameter.",
-								GENERIC_PARAMETERS[index]
-							);
-						}
-						catch (InstantiationFailedException e)
-						{
-							LOGGER.debug
-							(
-								"Couldn't instantiate parameter, using null.",
-								e
-							);
-							
-							/*
-							 * Pass null to the constructor for the current
-							 * parameter.
-							 */
-							ARGUMENTS[index] = null;
-							
-							continue;
+							break;
 						}
 					}
 					
-					LOGGER.debug
-					(
-						"Invoking constructor \"{}\" with arguments: {}",
-						CONSTRUCTOR.toGenericString( ),
-						ARGUMENTS
-					);
-					
-					/*
-					 * If newInstance() completes normally, then instantiation
-					 * was successful, and the result is returned, skipping the
-					 * rest of the loop. If an exception is thrown at any point
-					 * in this try block, it's caught and logged, and the loop
-					 * continues, trying the next constructor.
-					 */
-					return CONSTRUCTOR.newInstance(ARGUMENTS);
-				}
-				catch (InvocationTargetException e)
-				{
-					LOGGER.debug("Constructor failed.", e);
-					
-					continue;
-				}
-				catch (SecurityException e)
-				{
-					LOGGER.warn("Constructor failed.", e);
-					
-					continue;
-				}
-				catch (IllegalAccessException e)
-				{
-					LOGGER.warn("Constructor failed.", e);
-					
-					continue;
-				}
-				catch (IllegalArgumentException e)
-				{
-					LOGGER.error("Constructor failed.", e);
-					
-					continue;
-				}
-				catch (InstantiationException e)
-				{
-					LOGGER.error("Constructor failed.", e);
-					
-					continue;
-				}
-				catch (ExceptionInInitializerError e)
-				{
-					LOGGER.error("Constructor failed.", e);
-					
-					throw
+					DEFAULTS.RECIPES.put
 					(
-						new InstantiationFailedException
-						(
-							e,
-							"Static initialization failed for type %s.",
-							CLASS.getSimpleName( )
-						)
+						TYPE,
+						new Recipe<T>(CONSTRUCTOR, ARGUMENT_TYPES, OFFSET, nested)
 					);
 				}
+				
+				return INSTANCE;
 			}
-			
-			/*
-			 * If the above loop finished without a constructor completing
-			 * normally, then instantiation has failed.
-			 */
-			throw
-			(
-				new InstantiationFailedException
+			catch (InvocationTargetException e)
+			{
+				LOGGER.debug("Constructor failed.", e);
+				
+				trace(TRACER, CONSTRUCTOR, e);
+				
+				continue;
+			}
+			catch (SecurityException e)
+			{
+				LOGGER.warn("Constructor failed.", e);
+				
+				trace(TRACER, CONSTRUCTOR, e);
+				
+				continue;
+			}
+			catch (IllegalAccessException e)
+			{
+				LOGGER.warn("Constructor failed.", e);
+				
+				trace(TRACER, CONSTRUCTOR, e);
+				
+				continue;
+			}
+			catch (IllegalArgumentException e)
+			{
+				LOGGER.error("Constructor failed.", e);
+				
+				trace(TRACER, CONSTRUCTOR, e);
+				
+				continue;
+			}
+			catch (InstantiationException e)
+			{
+				LOGGER.error("Constructor failed.", e);
+				
+				trace(TRACER, CONSTRUCTOR, e);
+				
+				continue;
+			}
+			catch (ExceptionInInitializerError e)
+			{
+				LOGGER.error("Constructor failed.", e);
+				
+				trace(TRACER, CONSTRUCTOR, e);
+				
+				throw
 				(
-					"No working constructor was found for class %s.",
-					CLASS.getSimpleName( )
-				)
-			);
+					new InstantiationFailedException
+					(
+						e,
+						"Static initialization failed for type %s.",
+						CLASS.getSimpleName( )
+					)
+				);
+			}
 		}
+		
+		/*
+		 * If the above loop finished without a constructor completing
+		 * normally, then instantiation has failed.
+		 */
+		throw
+		(
+			new InstantiationFailedException
+			(
+				"No working constructor was found for class %s.",
+				CLASS.getSimpleName( )
+			)
+		);
 	}
 	
 	/**
@@ -0,0 +1,682 @@
+package org.gdejohn.similitude;
+
+import static java.lang.Long.numberOfLeadingZeros;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.lang.reflect.Array.getLength;
+import static java.util.Collections.unmodifiableMap;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts what cloning, instantiating and inferring types does, to find the
+ * types that dominate clone cost, and to size caches.
+ * 
+ * Metrics are a {@link Tracer}, so they only count anything while installed
+ * with {@link Tracing#setTracer(Tracer)}. They can be read programmatically
+ * with {@link #snapshot()}, or through JMX once {@linkplain #register()
+ * registered} with the platform MBean server.
+ * 
+ * Counts are kept per class name, rather than per class, so that metrics
+ * never keep a class from being unloaded.
+ */
+public final class CloneMetrics implements Tracer, CloneMetricsMXBean
+{
+	/**
+	 * The number of buckets in each latency histogram.
+	 * 
+	 * @see #getBucket(long)
+	 */
+	public static final int BUCKETS = 40;
+	
+	/**
+	 * The name metrics are registered with JMX under by default.
+	 */
+	public static final String DEFAULT_NAME = "org.gdejohn.similitude:type=CloneMetrics";
+	
+	/**
+	 * Counts for objects of a single class.
+	 */
+	private static final class TypeMetrics
+	{
+		final LongAdder CLONES = new LongAdder( );
+		
+		/**
+		 * How many root objects of the class took how long to clone.
+		 * 
+		 * @see CloneMetrics#getBucket(long)
+		 */
+		final AtomicLongArray LATENCIES = new AtomicLongArray(BUCKETS);
+	}
+	
+	private final LongAdder VISITED = new LongAdder( );
+	
+	private final LongAdder CLONED = new LongAdder( );
+	
+	private final LongAdder SHALLOW = new LongAdder( );
+	
+	private final LongAdder ARRAYS = new LongAdder( );
+	
+	private final LongAdder BYTES = new LongAdder( );
+	
+	private final LongAdder FIELDS = new LongAdder( );
+	
+	private final LongAdder CONSTRUCTORS = new LongAdder( );
+	
+	private final LongAdder FAILURES = new LongAdder( );
+	
+	private final LongAdder INFERRED = new LongAdder( );
+	
+	private final LongAdder LOOKUPS = new LongAdder( );
+	
+	private final LongAdder BUILT = new LongAdder( );
+	
+	private final ConcurrentMap<String, TypeMetrics> TYPES =
+	(
+		new ConcurrentHashMap<String, TypeMetrics>( )
+	);
+	
+	/**
+	 * The name {@code this} is registered with JMX under, or {@code null} if
+	 * it isn't.
+	 */
+	private ObjectName name = null;
+	
+	/**
+	 * Gets the latency histogram bucket that a given duration falls into.
+	 * 
+	 * Bucket {@code 0} holds durations of zero, and every bucket {@code i}
+	 * after that holds durations of at least 2<sup>i-1</sup>, and less than
+	 * 2<sup>i</sup> nanoseconds. The last bucket also holds every longer
+	 * duration.
+	 * 
+	 * @param NANOS A duration, in nanoseconds.
+	 * 
+	 * @return The index of the bucket that {@code NANOS} falls into.
+	 */
+	public static int getBucket(final long NANOS)
+	{
+		if (NANOS <= 0)
+		{
+			return 0;
+		}
+		else
+		{
+			return Math.min(Long.SIZE - numberOfLeadingZeros(NANOS), BUCKETS - 1);
+		}
+	}
+	
+	/**
+	 * Gets the number of bytes a single element of a given primitive type
+	 * takes up.
+	 * 
+	 * @param COMPONENT The component type of an array.
+	 * 
+	 * @return The size of a {@code COMPONENT} value, or {@code 0} if it's not a primitive type.
+	 */
+	private static int getWidth(final Class<?> COMPONENT)
+	{
+		if (COMPONENT == long.class || COMPONENT == double.class)
+		{
+			return 8;
+		}
+		else if (COMPONENT == int.class || COMPONENT == float.class)
+		{
+			return 4;
+		}
+		else if (COMPONENT == short.class || COMPONENT == char.class)
+		{
+			return 2;
+		}
+		else if (COMPONENT == byte.class || COMPONENT == boolean.class)
+		{
+			return 1;
+		}
+		else
+		{
+			return 0;
+		}
+	}
+	
+	private TypeMetrics getTypeMetrics(final Object OBJECT)
+	{
+		final String NAME = OBJECT.getClass( ).getName( );
+		
+		final TypeMetrics EXISTING = TYPES.get(NAME);
+		
+		if (EXISTING == null)
+		{
+			final TypeMetrics CREATED = new TypeMetrics( );
+			
+			final TypeMetrics RACED = TYPES.putIfAbsent(NAME, CREATED);
+			
+			return (RACED == null) ? CREATED : RACED;
+		}
+		else
+		{
+			return EXISTING;
+		}
+	}
+	
+	@Override
+	public void objectVisited(final Object ORIGINAL, final Object CLONE)
+	{
+		VISITED.increment( );
+		
+		if (ORIGINAL == CLONE)
+		{
+			SHALLOW.increment( );
+		}
+	}
+	
+	@Override
+	public void objectCloned(final Object ORIGINAL, final Object CLONE)
+	{
+		CLONED.increment( );
+		
+		getTypeMetrics(ORIGINAL).CLONES.increment( );
+		
+		final Class<?> COMPONENT = ORIGINAL.getClass( ).getComponentType( );
+		
+		if (COMPONENT != null)
+		{
+			ARRAYS.increment( );
+			
+			BYTES.add((long)getWidth(COMPONENT) * getLength(ORIGINAL));
+		}
+	}
+	
+	@Override
+	public void cloneFinished(final Object ORIGINAL, final Object CLONE, final long NANOS)
+	{
+		getTypeMetrics(ORIGINAL).LATENCIES.incrementAndGet(getBucket(NANOS));
+	}
+	
+	@Override
+	public void fieldCopied(final Object CLONE, final Field FIELD, final Object VALUE)
+	{
+		FIELDS.increment( );
+	}
+	
+	@Override
+	public void constructorTried(final Constructor<?> CONSTRUCTOR, final Throwable FAILURE)
+	{
+		CONSTRUCTORS.increment( );
+		
+		if (FAILURE != null)
+		{
+			FAILURES.increment( );
+		}
+	}
+	
+	@Override
+	public void typeInferred(final Object OBJECT, final TypeToken<?> TYPE)
+	{
+		INFERRED.increment( );
+	}
+	
+	@Override
+	public void typeLookedUp(final Type TYPE)
+	{
+		LOOKUPS.increment( );
+	}
+	
+	@Override
+	public void typeBuilt(final Type TYPE)
+	{
+		BUILT.increment( );
+	}
+	
+	@Override
+	public long getObjectsVisited( )
+	{
+		return VISITED.sum( );
+	}
+	
+	@Override
+	public long getObjectsCloned( )
+	{
+		return CLONED.sum( );
+	}
+	
+	@Override
+	public long getIdentityHits( )
+	{ // Read the parts first, so the difference can't be skewed negative.
+		final long OBJECTS_CLONED = getObjectsCloned( );
+		
+		final long SHALLOW_COPIES = getShallowCopies( );
+		
+		return
+		(
+			Math.max(getObjectsVisited( ) - SHALLOW_COPIES - OBJECTS_CLONED, 0)
+		);
+	}
+	
+	@Override
+	public long getShallowCopies( )
+	{
+		return SHALLOW.sum( );
+	}
+	
+	@Override
+	public long getArraysCloned( )
+	{
+		return ARRAYS.sum( );
+	}
+	
+	@Override
+	public long getBytesCopied( )
+	{
+		return BYTES.sum( );
+	}
+	
+	@Override
+	public long getFieldsCloned( )
+	{
+		return FIELDS.sum( );
+	}
+	
+	@Override
+	public long getConstructorsTried( )
+	{
+		return CONSTRUCTORS.sum( );
+	}
+	
+	@Override
+	public long getConstructorFailures( )
+	{
+		return FAILURES.sum( );
+	}
+	
+	@Override
+	public long getTypesInferred( )
+	{
+		return INFERRED.sum( );
+	}
+	
+	@Override
+	public long getTypeLookups( )
+	{
+		return LOOKUPS.sum( );
+	}
+	
+	@Override
+	public long getTypesBuilt( )
+	{
+		return BUILT.sum( );
+	}
+	
+	@Override
+	public double getTypeCacheHitRate( )
+	{
+		return getHitRate(getTypesBuilt( ), getTypeLookups( ));
+	}
+	
+	private static double getHitRate(final long BUILT, final long LOOKUPS)
+	{
+		if (LOOKUPS <= BUILT)
+		{
+			return (LOOKUPS == 0) ? 1 : 0;
+		}
+		else
+		{
+			return (double)(LOOKUPS - BUILT) / LOOKUPS;
+		}
+	}
+	
+	@Override
+	public Map<String, Long> getCloneCounts( )
+	{
+		final Map<String, Long> COUNTS = new TreeMap<String, Long>( );
+		
+		for (final Map.Entry<String, TypeMetrics> ENTRY : TYPES.entrySet( ))
+		{
+			final long COUNT = ENTRY.getValue( ).CLONES.sum( );
+			
+			if (COUNT > 0)
+			{
+				COUNTS.put(ENTRY.getKey( ), COUNT);
+			}
+		}
+		
+		return unmodifiableMap(COUNTS);
+	}
+	
+	@Override
+	public Map<String, long[ ]> getLatencyHistograms( )
+	{
+		final Map<String, long[ ]> HISTOGRAMS = new TreeMap<String, long[ ]>( );
+		
+		for (final Map.Entry<String, TypeMetrics> ENTRY : TYPES.entrySet( ))
+		{
+			final AtomicLongArray LATENCIES = ENTRY.getValue( ).LATENCIES;
+			
+			final long[ ] HISTOGRAM = new long[BUCKETS];
+			
+			long total = 0;
+			
+			for (int index = 0; index < BUCKETS; index++)
+			{
+				HISTOGRAM[index] = LATENCIES.get(index);
+				
+				total += HISTOGRAM[index];
+			}
+			
+			if (total > 0)
+			{
+				HISTOGRAMS.put(ENTRY.getKey( ), HISTOGRAM);
+			}
+		}
+		
+		return unmodifiableMap(HISTOGRAMS);
+	}
+	
+	@Override
+	public void reset( )
+	{
+		final LongAdder[ ] COUNTERS =
+		{
+			VISITED,
+			CLONED,
+			SHALLOW,
+			ARRAYS,
+			BYTES,
+			FIELDS,
+			CONSTRUCTORS,
+			FAILURES,
+			INFERRED,
+			LOOKUPS,
+			BUILT
+		};
+		
+		for (final LongAdder COUNTER : COUNTERS)
+		{
+			COUNTER.reset( );
+		}
+		
+		TYPES.clear( );
+	}
+	
+	/**
+	 * Reads every count at once.
+	 * 
+	 * @return The current counts.
+	 */
+	public Snapshot snapshot( )
+	{
+		return new Snapshot(this);
+	}
+	
+	/**
+	 * Registers {@code this} with the platform MBean server, under {@link
+	 * #DEFAULT_NAME}.
+	 * 
+	 * @return The name {@code this} was registered under.
+	 * 
+	 * @throws IllegalStateException If {@code this} is already registered, or registering failed.
+	 */
+	public ObjectName register( )
+	{
+		return register(DEFAULT_NAME);
+	}
+	
+	/**
+	 * Registers {@code this} with the platform MBean server under a given
+	 * name.
+	 * 
+	 * @param NAME The object name to register under.
+	 * 
+	 * @return The name {@code this} was registered under.
+	 * 
+	 * @throws IllegalStateException If {@code this} is already registered, or registering failed.
+	 */
+	public synchronized ObjectName register(final String NAME)
+	{
+		if (name != null)
+		{
+			throw new IllegalStateException(String.format("Already registered as %s.", name));
+		}
+		
+		try
+		{
+			final ObjectName OBJECT_NAME = new ObjectName(NAME);
+			
+			getPlatformMBeanServer( ).registerMBean(this, OBJECT_NAME);
+			
+			name = OBJECT_NAME;
+			
+			return OBJECT_NAME;
+		}
+		catch (JMException e)
+		{
+			throw new IllegalStateException(String.format("Couldn't register as %s.", NAME), e);
+		}
+	}
+	
+	/**
+	 * Unregisters {@code this} from the platform MBean server, if it's
+	 * registered.
+	 * 
+	 * @throws IllegalStateException If unregistering failed.
+	 */
+	public synchronized void unregister( )
+	{
+		if (name == null)
+		{
+			return;
+		}
+		
+		try
+		{
+			getPlatformMBeanServer( ).unregisterMBean(name);
+			
+			name = null;
+		}
+		catch (JMException e)
+		{
+			throw new IllegalStateException(String.format("Couldn't unregister %s.", name), e);
+		}
+	}
+	
+	/**
+	 * Every count kept by {@link CloneMetrics}, as they were when read.
+	 * 
+	 * Counters are read one after another while cloning may still be going
+	 * on, so counts that are related, like the objects visited and the
+	 * identity hits, are only as consistent as cloning was quiet.
+	 */
+	public static final class Snapshot
+	{
+		private final long OBJECTS_VISITED;
+		
+		private final long OBJECTS_CLONED;
+		
+		private final long IDENTITY_HITS;
+		
+		private final long SHALLOW_COPIES;
+		
+		private final long ARRAYS_CLONED;
+		
+		private final long BYTES_COPIED;
+		
+		private final long FIELDS_CLONED;
+		
+		private final long CONSTRUCTORS_TRIED;
+		
+		private final long CONSTRUCTOR_FAILURES;
+		
+		private final long TYPES_INFERRED;
+		
+		private final long TYPE_LOOKUPS;
+		
+		private final long TYPES_BUILT;
+		
+		private final Map<String, Long> CLONE_COUNTS;
+		
+		private final Map<String, long[ ]> LATENCY_HISTOGRAMS;
+		
+		private Snapshot(final CloneMetrics METRICS)
+		{
+			this.OBJECTS_CLONED = METRICS.getObjectsCloned( );
+			
+			this.SHALLOW_COPIES = METRICS.getShallowCopies( );
+			
+			this.OBJECTS_VISITED = METRICS.getObjectsVisited( );
+			
+			this.IDENTITY_HITS =
+			(
+				Math.max(OBJECTS_VISITED - SHALLOW_COPIES - OBJECTS_CLONED, 0)
+			);
+			
+			this.ARRAYS_CLONED = METRICS.getArraysCloned( );
+			
+			this.BYTES_COPIED = METRICS.getBytesCopied( );
+			
+			this.FIELDS_CLONED = METRICS.getFieldsCloned( );
+			
+			this.CONSTRUCTORS_TRIED = METRICS.getConstructorsTried( );
+			
+			this.CONSTRUCTOR_FAILURES = METRICS.getConstructorFailures( );
+			
+			this.TYPES_INFERRED = METRICS.getTypesInferred( );
+			
+			this.TYPES_BUILT = METRICS.getTypesBuilt( );
+			
+			this.TYPE_LOOKUPS = METRICS.getTypeLookups( );
+			
+			this.CLONE_COUNTS = METRICS.getCloneCounts( );
+			
+			this.LATENCY_HISTOGRAMS = METRICS.getLatencyHistograms( );
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getObjectsVisited()
+		 */
+		public long getObjectsVisited( )
+		{
+			return OBJECTS_VISITED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getObjectsCloned()
+		 */
+		public long getObjectsCloned( )
+		{
+			return OBJECTS_CLONED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getIdentityHits()
+		 */
+		public long getIdentityHits( )
+		{
+			return IDENTITY_HITS;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getShallowCopies()
+		 */
+		public long getShallowCopies( )
+		{
+			return SHALLOW_COPIES;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getArraysCloned()
+		 */
+		public long getArraysCloned( )
+		{
+			return ARRAYS_CLONED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getBytesCopied()
+		 */
+		public long getBytesCopied( )
+		{
+			return BYTES_COPIED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getFieldsCloned()
+		 */
+		public long getFieldsCloned( )
+		{
+			return FIELDS_CLONED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getConstructorsTried()
+		 */
+		public long getConstructorsTried( )
+		{
+			return CONSTRUCTORS_TRIED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getConstructorFailures()
+		 */
+		public long getConstructorFailures( )
+		{
+			return CONSTRUCTOR_FAILURES;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getTypesInferred()
+		 */
+		public long getTypesInferred( )
+		{
+			return TYPES_INFERRED;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getTypeLookups()
+		 */
+		public long getTypeLookups( )
+		{
+			return TYPE_LOOKUPS;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getTypesBuilt()
+		 */
+		public long getTypesBuilt( )
+		{
+			return TYPES_BUILT;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getTypeCacheHitRate()
+		 */
+		public double getTypeCacheHitRate( )
+		{
+			return getHitRate(TYPES_BUILT, TYPE_LOOKUPS);
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getCloneCounts()
+		 */
+		public Map<String, Long> getCloneCounts( )
+		{
+			return CLONE_COUNTS;
+		}
+		
+		/**
+		 * @see CloneMetricsMXBean#getLatencyHistograms()
+		 */
+		public Map<String, long[ ]> getLatencyHistograms( )
+		{
+			return LATENCY_HISTOGRAMS;
+		}
+	}
+}
\ No newline at end of file
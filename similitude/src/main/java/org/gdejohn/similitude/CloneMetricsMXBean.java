@@ -0,0 +1,95 @@
+package org.gdejohn.similitude;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link CloneMetrics}, as registered with JMX.
+ * 
+ * Every attribute is read as it is at the time, while cloning may still be
+ * going on. For a consistent view of all of them at once, see {@link
+ * CloneMetrics#snapshot()}.
+ */
+public interface CloneMetricsMXBean
+{
+	/**
+	 * @return How many objects were reached while cloning, including those that were shallow-copied or already cloned.
+	 */
+	long getObjectsVisited( );
+	
+	/**
+	 * @return How many new clones were associated with objects, including arrays and collections.
+	 */
+	long getObjectsCloned( );
+	
+	/**
+	 * @return How many objects were reached while cloning that had already been cloned.
+	 */
+	long getIdentityHits( );
+	
+	/**
+	 * @return How many objects were shallow-copied.
+	 */
+	long getShallowCopies( );
+	
+	/**
+	 * @return How many arrays were cloned.
+	 */
+	long getArraysCloned( );
+	
+	/**
+	 * @return How many bytes of primitive elements the cloned arrays hold.
+	 */
+	long getBytesCopied( );
+	
+	/**
+	 * @return How many fields were set to clones of their values.
+	 */
+	long getFieldsCloned( );
+	
+	/**
+	 * @return How many constructors were invoked to instantiate class types.
+	 */
+	long getConstructorsTried( );
+	
+	/**
+	 * @return How many of the constructors that were invoked failed.
+	 */
+	long getConstructorFailures( );
+	
+	/**
+	 * @return How many times the type of an object was inferred.
+	 */
+	long getTypesInferred( );
+	
+	/**
+	 * @return How many times a canonical type was looked up.
+	 */
+	long getTypeLookups( );
+	
+	/**
+	 * @return How many of the canonical types that were looked up had to be built.
+	 */
+	long getTypesBuilt( );
+	
+	/**
+	 * @return The fraction of canonical type lookups that were already cached, or {@code 1} if there were none.
+	 */
+	double getTypeCacheHitRate( );
+	
+	/**
+	 * @return How many new clones were associated with objects of each class, by class name.
+	 */
+	Map<String, Long> getCloneCounts( );
+	
+	/**
+	 * @return How long cloning each root object took, by the class name of the root, as counts in power-of-two buckets of nanoseconds.
+	 * 
+	 * @see CloneMetrics#getBucket(long)
+	 */
+	Map<String, long[ ]> getLatencyHistograms( );
+	
+	/**
+	 * Sets every count back to zero.
+	 */
+	void reset( );
+}
\ No newline at end of file
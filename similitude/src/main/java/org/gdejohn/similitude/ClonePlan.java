@@ -0,0 +1,431 @@
+package org.gdejohn.similitude;
+
+import static java.lang.reflect.Modifier.isFinal;
+import static org.gdejohn.similitude.TypeToken.typeOf;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Everything {@link Cloner} needs to know about a class to clone its instances.
+ * 
+ * Building a plan resolves the instance fields of a class, makes them
+ * accessible, decides whether instances can be shallow-copied, and decides
+ * how each field is copied. None of that depends on any particular instance,
+ * so a plan is built once per class and reused for every instance of that
+ * class that is visited, until the cloner's immutable types change.
+ * 
+ * @param <T> The class that {@code this} plan clones instances of.
+ */
+final class ClonePlan<T>
+{
+	/**
+	 * How instances of a class are cloned as a whole.
+	 */
+	enum Kind
+	{
+		/**
+		 * Immutable or enum, always safe to shallow-copy.
+		 */
+		SHALLOW,
+		
+		/**
+		 * Generic class that is registered as immutable for some type
+		 * arguments, but not necessarily all of them. Whether an instance can
+		 * be shallow-copied depends on its runtime type.
+		 */
+		RUNTIME,
+		
+		/**
+		 * Array type, cloned element by element.
+		 */
+		ARRAY,
+		
+		/**
+		 * One of a few core collections, cloned through its public API.
+		 * 
+		 * @see #COLLECTIONS
+		 */
+		COLLECTION,
+		
+		/**
+		 * Class type, cloned field by field.
+		 */
+		INSTANCE
+	}
+	
+	/**
+	 * How a single field, or the elements of an array, are copied.
+	 */
+	enum Strategy
+	{
+		/**
+		 * Primitive, or declared as a final immutable type, so the value can
+		 * be copied as is without inspecting it.
+		 */
+		COPY,
+		
+		/**
+		 * Anything else, the value has to be cloned.
+		 */
+		CLONE
+	}
+	
+	private static final FieldAccessor[ ] NO_FIELDS = new FieldAccessor[0];
+	
+	private static final Strategy[ ] NO_STRATEGIES = new Strategy[0];
+	
+	/**
+	 * Collections that are rebuilt through their public APIs instead of
+	 * being cloned field by field. Only these exact classes are, since a
+	 * subclass might add fields of its own.
+	 */
+	private static final Set<Class<?>> COLLECTIONS =
+	(
+		new HashSet<Class<?>>
+		(
+			Arrays.<Class<?>>asList
+			(
+				ArrayList.class,
+				LinkedList.class,
+				ArrayDeque.class,
+				HashMap.class,
+				TreeMap.class
+			)
+		)
+	);
+	
+	final Class<T> CLASS;
+	
+	final Kind KIND;
+	
+	/**
+	 * Accessors for the instance fields of {@link #CLASS}, all accessible, in
+	 * the same order as {@link TypeToken#getAllInstanceFields()}.
+	 */
+	final FieldAccessor[ ] FIELDS;
+	
+	/**
+	 * How each field in {@link #FIELDS} at the same index is copied.
+	 */
+	final Strategy[ ] STRATEGIES;
+	
+	/**
+	 * How the elements are copied if {@link #CLASS} is an array type.
+	 */
+	final Strategy COMPONENT_STRATEGY;
+	
+	/**
+	 * Copies every field in {@link #FIELDS} whose strategy is {@link
+	 * Strategy#COPY} in one go, or {@code null} if there are no such fields,
+	 * or if they have to be copied reflectively.
+	 * 
+	 * @see FieldCopier
+	 */
+	final MethodHandle COPIER;
+	
+	/**
+	 * {@code true} if every field in {@link #FIELDS} is copied as is, so that
+	 * nothing is left to clone once they've been copied.
+	 */
+	final boolean COPY_ONLY;
+	
+	/**
+	 * {@code true} if the type of an instance is fully determined by its
+	 * class, so that the runtime type never needs to be inferred.
+	 */
+	private final boolean INVARIANT;
+	
+	/**
+	 * The type of {@link #CLASS}, only built on first use.
+	 * 
+	 * Plans are shared between threads, which might race to build this, but
+	 * they'll all build equal types, so it doesn't matter which one wins.
+	 */
+	private TypeToken<T> type = null;
+	
+	/**
+	 * The types which can be shallow-copied, kept to build the field plan.
+	 */
+	private final Set<TypeToken<?>> IMMUTABLE_TYPES;
+	
+	/**
+	 * Whether immutability is inferred, kept to build the field plan.
+	 */
+	private final boolean INFERRING;
+	
+	/**
+	 * The plan to clone a collection field by field, only built on first use.
+	 * 
+	 * @see #getFieldPlan( )
+	 * 
+	 * Like {@link #type}, threads might race to build this, but they'll all
+	 * build equivalent plans.
+	 */
+	private volatile ClonePlan<T> fieldPlan = null;
+	
+	/**
+	 * Builds the plan for a given class.
+	 * 
+	 * @param CLASS The class to plan for.
+	 * @param IMMUTABLE_TYPES The types which can be shallow-copied.
+	 * @param INFERRING Whether classes that aren't registered as immutable can still be inferred to be.
+	 * 
+	 * @throws CloningFailedException If an instance field couldn't be made accessible.
+	 * 
+	 * @see ImmutabilityAnalyzer
+	 */
+	ClonePlan(final Class<T> CLASS, final Set<TypeToken<?>> IMMUTABLE_TYPES, final boolean INFERRING)
+	{
+		this(CLASS, IMMUTABLE_TYPES, INFERRING, true);
+	}
+	
+	/**
+	 * Builds the plan for a given class.
+	 * 
+	 * @param CLASS The class to plan for.
+	 * @param IMMUTABLE_TYPES The types which can be shallow-copied.
+	 * @param INFERRING Whether classes that aren't registered as immutable can still be inferred to be.
+	 * @param SPECIALIZING Whether collections are cloned through their public APIs, rather than field by field.
+	 * 
+	 * @throws CloningFailedException If an instance field couldn't be made accessible.
+	 */
+	private ClonePlan(final Class<T> CLASS, final Set<TypeToken<?>> IMMUTABLE_TYPES, final boolean INFERRING, final boolean SPECIALIZING)
+	{
+		this.CLASS = CLASS;
+		
+		this.IMMUTABLE_TYPES = IMMUTABLE_TYPES;
+		
+		this.INFERRING = INFERRING;
+		
+		this.INVARIANT = TypeToken.isInvariant(CLASS);
+		
+		if (CLASS.isArray( ))
+		{
+			this.KIND = Kind.ARRAY;
+			
+			this.COMPONENT_STRATEGY =
+			(
+				getStrategy(CLASS.getComponentType( ), IMMUTABLE_TYPES, INFERRING)
+			);
+			
+			this.FIELDS = NO_FIELDS;
+			
+			this.STRATEGIES = NO_STRATEGIES;
+			
+			this.COPIER = null;
+			
+			this.COPY_ONLY = (this.COMPONENT_STRATEGY == Strategy.COPY);
+		}
+		else
+		{
+			final Kind KIND = getKind(CLASS, IMMUTABLE_TYPES, INFERRING);
+			
+			if (KIND == Kind.COLLECTION && SPECIALIZING == false)
+			{
+				this.KIND = Kind.INSTANCE;
+			}
+			else
+			{
+				this.KIND = KIND;
+			}
+			
+			this.COMPONENT_STRATEGY = null;
+			
+			if (this.KIND == Kind.SHALLOW || this.KIND == Kind.COLLECTION)
+			{ // Fields are never accessed.
+				this.FIELDS = NO_FIELDS;
+				
+				this.STRATEGIES = NO_STRATEGIES;
+				
+				this.COPIER = null;
+				
+				this.COPY_ONLY = (this.KIND == Kind.SHALLOW);
+			}
+			else
+			{
+				this.FIELDS = FieldAccessor.forClass(CLASS);
+				
+				this.STRATEGIES = new Strategy[this.FIELDS.length];
+				
+				final List<FieldAccessor> COPIED =
+				(
+					new ArrayList<FieldAccessor>( )
+				);
+				
+				for (int index = 0; index < this.FIELDS.length; index++)
+				{
+					final FieldAccessor FIELD = this.FIELDS[index];
+					
+					if (FIELD.ACCESSIBLE == false)
+					{ // FIELD couldn't be made accessible.
+						throw
+						(
+							new CloningFailedException
+							(
+								FIELD.DENIAL,
+								"Field \"%s\" in class %s couldn't be set accessible.",
+								FIELD,
+								CLASS.getSimpleName( )
+							)
+						);
+					}
+					
+					this.STRATEGIES[index] =
+					(
+						getStrategy(FIELD.FIELD.getType( ), IMMUTABLE_TYPES, INFERRING)
+					);
+					
+					if (this.STRATEGIES[index] == Strategy.COPY)
+					{
+						COPIED.add(FIELD);
+					}
+				}
+				
+				this.COPIER = FieldCopier.compile(CLASS, COPIED);
+				
+				this.COPY_ONLY = (COPIED.size( ) == this.FIELDS.length);
+			}
+		}
+	}
+	
+	private static Kind getKind(final Class<?> CLASS, final Set<TypeToken<?>> IMMUTABLE_TYPES, final boolean INFERRING)
+	{
+		if (Enum.class.isAssignableFrom(CLASS))
+		{ // Includes enum constants with class bodies.
+			return Kind.SHALLOW;
+		}
+		
+		boolean registered = false;
+		
+		for (final TypeToken<?> TYPE : IMMUTABLE_TYPES)
+		{
+			if (TYPE.getRawType( ).equals(CLASS))
+			{
+				registered = true;
+				
+				break;
+			}
+		}
+		
+		if (registered == false)
+		{
+			if (INFERRING && ImmutabilityAnalyzer.isImmutable(CLASS))
+			{
+				return Kind.SHALLOW;
+			}
+			else if (COLLECTIONS.contains(CLASS))
+			{
+				return Kind.COLLECTION;
+			}
+			else
+			{
+				return Kind.INSTANCE;
+			}
+		}
+		else if (TypeToken.isInvariant(CLASS) && IMMUTABLE_TYPES.contains(typeOf(CLASS)))
+		{
+			return Kind.SHALLOW;
+		}
+		else
+		{
+			return Kind.RUNTIME;
+		}
+	}
+	
+	/**
+	 * Decides how values of a given declared type are copied.
+	 * 
+	 * Values can only be copied without being inspected if every possible
+	 * value is shallow-copyable, so the declared type must either be
+	 * primitive, or be final and always shallow-copyable.
+	 */
+	private static Strategy getStrategy(final Class<?> DECLARED, final Set<TypeToken<?>> IMMUTABLE_TYPES, final boolean INFERRING)
+	{
+		if (DECLARED.isPrimitive( ))
+		{
+			return Strategy.COPY;
+		}
+		else if (DECLARED.isArray( ))
+		{
+			return Strategy.CLONE;
+		}
+		else if (DECLARED.isEnum( ))
+		{ // Constants with class bodies are subclasses, but still enums.
+			return Strategy.COPY;
+		}
+		else if (isFinal(DECLARED.getModifiers( )) && getKind(DECLARED, IMMUTABLE_TYPES, INFERRING) == Kind.SHALLOW)
+		{
+			return Strategy.COPY;
+		}
+		else
+		{
+			return Strategy.CLONE;
+		}
+	}
+	
+	/**
+	 * Gets the plan to clone a collection field by field, for when it can't
+	 * be rebuilt through its public API.
+	 * 
+	 * @return A plan of kind {@link Kind#INSTANCE} for {@link #CLASS}.
+	 * 
+	 * @throws CloningFailedException If an instance field couldn't be made accessible.
+	 */
+	ClonePlan<T> getFieldPlan( )
+	{
+		if (KIND != Kind.COLLECTION)
+		{
+			return this;
+		}
+		else if (fieldPlan == null)
+		{
+			fieldPlan = new ClonePlan<T>(CLASS, IMMUTABLE_TYPES, INFERRING, false);
+		}
+		
+		return fieldPlan;
+	}
+	
+	/**
+	 * @return The type of {@link #CLASS}, ignoring any particular instance.
+	 */
+	TypeToken<T> getType( )
+	{
+		if (type == null)
+		{
+			type = typeOf(CLASS);
+		}
+		
+		return type;
+	}
+	
+	/**
+	 * Gets the type of a given instance of {@link #CLASS}.
+	 * 
+	 * The runtime type is only inferred if it can't be determined from the
+	 * class alone.
+	 * 
+	 * @param INSTANCE An instance of {@link #CLASS}.
+	 * 
+	 * @return The type of {@code INSTANCE}.
+	 */
+	TypeToken<? extends T> getType(final T INSTANCE)
+	{
+		if (INVARIANT)
+		{
+			return getType( );
+		}
+		else
+		{
+			return typeOf(INSTANCE);
+		}
+	}
+}
\ No newline at end of file
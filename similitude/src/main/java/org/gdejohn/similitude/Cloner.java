@@ -1,6 +1,7 @@
 package org.gdejohn.similitude;
 
 import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
 import static java.lang.Byte.valueOf;
 import static java.lang.Character.valueOf;
 import static java.lang.Double.valueOf;
@@ -9,22 +10,45 @@ import static java.lang.Integer.valueOf;
 import static java.lang.Long.valueOf;
 import static java.lang.Math.nextUp;
 import static java.lang.Short.valueOf;
-import static java.lang.reflect.Array.get;
+import static java.lang.System.arraycopy;
+import static java.lang.System.nanoTime;
 import static java.lang.reflect.Array.getLength;
 import static java.lang.reflect.Array.newInstance;
-import static java.lang.reflect.Array.set;
 import static java.lang.reflect.Modifier.isPublic;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.ForkJoinTask.getSurplusQueuedTaskCount;
+import static java.util.stream.StreamSupport.stream;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
 import static org.gdejohn.similitude.TypeToken.typeOf;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 
@@ -87,15 +111,181 @@ public final class Cloner
 		)
 	);
 	
+	/**
+	 * The array of buckets of a {@code HashMap}, or {@code null} if it can't
+	 * be read.
+	 */
+	static final FieldAccessor HASH_MAP_TABLE = hashMapField("table");
+	
+	/**
+	 * The load factor of a {@code HashMap}, or {@code null} if it can't be
+	 * read.
+	 */
+	private static final FieldAccessor HASH_MAP_LOAD_FACTOR = hashMapField("loadFactor");
+	
 	/**
 	 * Instantiates types that need to be deep-copied.
 	 */
 	private final Builder BUILDER = new Builder( );
 	
 	/**
-	 * Immutable types, can be shallow-copied.
+	 * A snapshot of the immutable types, along with the clone plans that were
+	 * built for them.
+	 * 
+	 * A registry is never modified once it's been published. Instead, every
+	 * change to the immutable types replaces the whole registry, so reads
+	 * never need to lock, and plans built against one set of immutable types
+	 * are never used with another. Anything looked up per class is cached in
+	 * a {@code ClassValue}, so once it's been computed, looking it up again
+	 * doesn't hash or allocate anything.
+	 */
+	private static final class Registry
+	{
+		/**
+		 * Immutable types, can be shallow-copied. Read-only.
+		 */
+		final Set<TypeToken<?>> TYPES;
+		
+		/**
+		 * Whether classes that aren't immutable types can still be inferred
+		 * to be immutable.
+		 * 
+		 * @see ImmutabilityAnalyzer
+		 */
+		final boolean INFERRING;
+		
+		/**
+		 * Classes that have been cloned, mapped to their clone plans.
+		 * 
+		 * If another thread builds a plan for the same class at the same time,
+		 * only one of them is ever returned.
+		 * 
+		 * @see ClonePlan
+		 */
+		private final ClassValue<ClonePlan<?>> PLANS =
+		(
+			new ClassValue<ClonePlan<?>>( )
+			{
+				@Override
+				protected ClonePlan<?> computeValue(final Class<?> CLASS)
+				{
+					return buildPlan(CLASS);
+				}
+			}
+		);
+		
+		/**
+		 * Classes mapped to whether their raw types, without any type
+		 * arguments, are immutable.
+		 */
+		private final ClassValue<Boolean> IMMUTABLE_CLASSES =
+		(
+			new ClassValue<Boolean>( )
+			{
+				@Override
+				protected Boolean computeValue(final Class<?> CLASS)
+				{
+					return TYPES.contains(typeOf(CLASS)) ? TRUE : FALSE;
+				}
+			}
+		);
+		
+		Registry(final Set<TypeToken<?>> TYPES, final boolean INFERRING)
+		{
+			this.TYPES =
+			(
+				unmodifiableSet(new LinkedHashSet<TypeToken<?>>(TYPES))
+			);
+			
+			this.INFERRING = INFERRING;
+		}
+		
+		/**
+		 * Gets the clone plan for a given class, building it if necessary.
+		 * 
+		 * @param CLASS The class to get the clone plan for.
+		 * 
+		 * @return The clone plan for {@code CLASS}.
+		 */
+		<T> ClonePlan<T> getPlan(final Class<T> CLASS)
+		{
+			/*
+			 * Plans are only ever mapped to by the classes they were built for.
+			 */
+			@SuppressWarnings("unchecked")
+			final ClonePlan<T> PLAN = (ClonePlan<T>)PLANS.get(CLASS);
+			
+			return PLAN;
+		}
+		
+		/**
+		 * Builds the clone plan for a given class.
+		 * 
+		 * @param CLASS The class to build the clone plan for.
+		 * 
+		 * @return A new clone plan for {@code CLASS}.
+		 */
+		private <T> ClonePlan<T> buildPlan(final Class<T> CLASS)
+		{
+			LOGGER.debug
+			(
+				"Building clone plan for {}.", CLASS.getSimpleName( )
+			);
+			
+			return new ClonePlan<T>(CLASS, TYPES, INFERRING);
+		}
+		
+		/**
+		 * Checks if the raw type of a given class is immutable.
+		 * 
+		 * @param CLASS The class to check.
+		 * 
+		 * @return {@code true} if the raw type of {@code CLASS} is registered as immutable, else {@code false}.
+		 */
+		boolean isImmutable(final Class<?> CLASS)
+		{
+			return IMMUTABLE_CLASSES.get(CLASS).booleanValue( );
+		}
+	}
+	
+	/**
+	 * The current immutable types and clone plans.
+	 */
+	private volatile Registry registry;
+	
+	/**
+	 * Held while changing the immutable types, so that concurrent changes
+	 * aren't lost.
+	 */
+	private final Object REGISTRATION = new Object( );
+	
+	/**
+	 * Ways of allocating clones of class types.
+	 */
+	public static enum Allocation
+	{
+		/**
+		 * Instantiate clones with {@code this} cloner's builder, running one of
+		 * their constructors with default arguments.
+		 */
+		CONSTRUCTOR,
+		
+		/**
+		 * Allocate clones without running any of their constructors, the same
+		 * way serialization does, and fall back to {@link #CONSTRUCTOR} for
+		 * classes that can't be allocated that way.
+		 * 
+		 * Since every field of a clone is overwritten anyway, this avoids
+		 * building constructor arguments only to throw them away, as well as
+		 * any side effects of the constructors themselves.
+		 */
+		RAW
+	}
+	
+	/**
+	 * How clones of class types are allocated.
 	 */
-	private final Set<TypeToken<?>> IMMUTABLE_TYPES;
+	private volatile Allocation allocation = Allocation.CONSTRUCTOR;
 	
 	/**
 	 * Initializes all instance variables.
@@ -104,10 +294,7 @@ public final class Cloner
 	 */
 	private Cloner(final Set<TypeToken<?>> IMMUTABLE_TYPES)
 	{
-		this.IMMUTABLE_TYPES =
-		(
-			new LinkedHashSet<TypeToken<?>>(IMMUTABLE_TYPES)
-		);
+		this.registry = new Registry(IMMUTABLE_TYPES, false);
 	}
 	
 	/**
@@ -129,11 +316,67 @@ public final class Cloner
 	}
 	
 	/**
-	 * @return A read-only view of {@code this} cloner's immutable types.
+	 * @return How {@code this} cloner allocates clones of class types.
+	 */
+	public Allocation getAllocation( )
+	{
+		return allocation;
+	}
+	
+	/**
+	 * Sets how {@code this} cloner allocates clones of class types.
+	 * 
+	 * @param ALLOCATION The allocation to use from now on.
+	 */
+	public void setAllocation(final Allocation ALLOCATION)
+	{
+		if (ALLOCATION == null)
+		{
+			throw new IllegalArgumentException("Allocation can't be null.");
+		}
+		
+		this.allocation = ALLOCATION;
+	}
+	
+	/**
+	 * @return {@code true} if {@code this} cloner infers immutability, else {@code false}.
+	 * 
+	 * @see #setInferringImmutability(boolean)
+	 */
+	public boolean isInferringImmutability( )
+	{
+		return registry.INFERRING;
+	}
+	
+	/**
+	 * Sets whether {@code this} cloner infers immutability for classes that
+	 * aren't registered as immutable.
+	 * 
+	 * When inferring, a final class whose instance fields are all final, and
+	 * all declared as primitive, enum, or other immutable types, is shallow
+	 * copied just like a registered immutable type, along with a few known
+	 * immutable types like {@code BigDecimal}. Since that only looks at
+	 * declarations, it's off by default.
+	 * 
+	 * @param INFERRING {@code true} to infer immutability, {@code false} to only shallow copy registered immutable types and enums.
+	 */
+	public void setInferringImmutability(final boolean INFERRING)
+	{
+		synchronized (REGISTRATION)
+		{
+			if (registry.INFERRING != INFERRING)
+			{
+				registry = new Registry(registry.TYPES, INFERRING);
+			}
+		}
+	}
+	
+	/**
+	 * @return A read-only snapshot of {@code this} cloner's immutable types.
 	 */
 	public Set<TypeToken<?>> getImmutableTypes( )
 	{
-		return unmodifiableSet(IMMUTABLE_TYPES);
+		return registry.TYPES;
 	}
 	
 	/**
@@ -145,7 +388,67 @@ public final class Cloner
 	 */
 	public boolean isImmutable(final TypeToken<?> TYPE)
 	{
-		return IMMUTABLE_TYPES.contains(TYPE);
+		if (TYPE == null)
+		{
+			return false;
+		}
+		
+		final Class<?> CLASS = TYPE.getRawType( );
+		
+		if (TYPE == typeOf(CLASS))
+		{ // The canonical raw type, look it up by its class instead.
+			return registry.isImmutable(CLASS);
+		}
+		else
+		{
+			return registry.TYPES.contains(TYPE);
+		}
+	}
+	
+	/**
+	 * Checks if the raw type of a given class, without any type arguments, is
+	 * registered as immutable.
+	 * 
+	 * This is the same as checking {@code isImmutable(typeOf(CLASS))}, but
+	 * after the first time it's been checked for a given class, it doesn't
+	 * allocate or hash anything.
+	 * 
+	 * @param CLASS The class to check.
+	 * 
+	 * @return {@code true} if the raw type of {@code CLASS} is registered as immutable, else {@code false}.
+	 */
+	public boolean isImmutable(final Class<?> CLASS)
+	{
+		return CLASS != null && registry.isImmutable(CLASS);
+	}
+	
+	/**
+	 * Adds a given type to the immutable types.
+	 * 
+	 * @param TYPE The type to add.
+	 * 
+	 * @return {@code true} if {@code TYPE} wasn't already registered.
+	 */
+	private boolean add(final TypeToken<?> TYPE)
+	{
+		synchronized (REGISTRATION)
+		{
+			final Set<TypeToken<?>> TYPES =
+			(
+				new LinkedHashSet<TypeToken<?>>(registry.TYPES)
+			);
+			
+			if (TYPES.add(TYPE))
+			{
+				registry = new Registry(TYPES, registry.INFERRING);
+				
+				return true;
+			}
+			else
+			{
+				return false;
+			}
+		}
 	}
 	
 	/**
@@ -175,7 +478,7 @@ public final class Cloner
 		}
 		else
 		{
-			final boolean CHANGED = IMMUTABLE_TYPES.add(TYPE);
+			final boolean CHANGED = add(TYPE);
 			
 			LOGGER.debug
 			(
@@ -209,7 +512,7 @@ public final class Cloner
 	{
 		BUILDER.addDefault(TYPE, VALUE);
 		
-		return IMMUTABLE_TYPES.add(TYPE);
+		return add(TYPE);
 	}
 	
 	/**
@@ -223,7 +526,24 @@ public final class Cloner
 	{
 		BUILDER.removeDefault(TYPE);
 		
-		return IMMUTABLE_TYPES.remove(TYPE);
+		synchronized (REGISTRATION)
+		{
+			final Set<TypeToken<?>> TYPES =
+			(
+				new LinkedHashSet<TypeToken<?>>(registry.TYPES)
+			);
+			
+			if (TYPES.remove(TYPE))
+			{
+				registry = new Registry(TYPES, registry.INFERRING);
+				
+				return true;
+			}
+			else
+			{
+				return false;
+			}
+		}
 	}
 	
 	/**
@@ -239,10 +559,22 @@ public final class Cloner
 	{
 		BUILDER.reset( );
 		
-		final boolean CHANGED =
-		(
-			IMMUTABLE_TYPES.retainAll(BASIC_TYPES.keySet( ))
-		);
+		final boolean CHANGED;
+		
+		synchronized (REGISTRATION)
+		{
+			final Set<TypeToken<?>> TYPES =
+			(
+				new LinkedHashSet<TypeToken<?>>(registry.TYPES)
+			);
+			
+			CHANGED = TYPES.retainAll(BASIC_TYPES.keySet( ));
+			
+			if (CHANGED)
+			{
+				registry = new Registry(TYPES, registry.INFERRING);
+			}
+		}
 		
 		LOGGER.debug
 		(
@@ -254,282 +586,3019 @@ public final class Cloner
 	}
 	
 	/**
-	 * Original objects that have already been cloned, mapped to their clones.
-	 * 
-	 * When cloning a given object, a new instance of that object's type is
-	 * created to be used as the clone, which that object is then associated
-	 * with in this map. Whenever that same object is encountered again, the
-	 * reference to its associated clone is simply reused. This also handles
-	 * any-dimensional arrays that contain themselves any number of times.
-	 * Overriding implementations of {@link java.lang.Object#equals(Object)}
-	 * and {@link java.lang.Object#hashCode()} are ignored. Rather, identity is
-	 * used.
-	 * 
-	 * @see IdentityHashMap
-	 */
-	private IdentityHashMap<Object, Object> CLONES =
-	(
-		new IdentityHashMap<Object, Object>( )
-	);
-	
-	/**
-	 * Does all of the work for {@link #toClone(Object)}.
-	 * 
-	 * This method calls itself recursively to clone each element in a given
-	 * array, or each instance field in a given instance of a class type, and
-	 * in addition to the original object to be cloned, it passes itself a
-	 * potential instance to use for the resulting clone that may have already
-	 * been instantiated higher in the call stack. If suitable, creating a new
-	 * instance of the original object's type, which can be very expensive, is
-	 * skipped. This isn't called directly, since {@link #CLONES} is only
-	 * cleared in {@code toClone(Object)} once recursion is finished.
+	 * An original object paired with its allocated, but unfinished, clone.
 	 * 
-	 * @param ORIGINAL The object to create a deep copy of.
-	 * @param INSTANCE The potential instance to use for the resulting clone.
-	 * 
-	 * @return A deep copy of {@code ORIGINAL}.
+	 * For arrays, only the elements from {@link #FROM}, inclusive, to {@link
+	 * #TO}, exclusive, are left to be cloned, so that a large array can be
+	 * split between several threads.
 	 * 
-	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any other reason.
+	 * @param <T> The class of the original object.
 	 */
-	private <T> T toClone(final T ORIGINAL, final T INSTANCE)
+	private static final class Pending<T>
 	{
-		if (ORIGINAL == null)
+		final T ORIGINAL;
+		
+		final T CLONE;
+		
+		final ClonePlan<T> PLAN;
+		
+		final int FROM;
+		
+		final int TO;
+		
+		/**
+		 * {@code true} if {@link #CLONE} is an existing collection whose
+		 * contents are reused, rather than a copy of the original.
+		 */
+		final boolean REFILL;
+		
+		Pending(final T ORIGINAL, final T CLONE, final ClonePlan<T> PLAN, final int FROM, final int TO, final boolean REFILL)
 		{
-			LOGGER.debug("Original object is null.");
+			this.ORIGINAL = ORIGINAL;
 			
-			return null;
+			this.CLONE = CLONE;
+			
+			this.PLAN = PLAN;
+			
+			this.FROM = FROM;
+			
+			this.TO = TO;
+			
+			this.REFILL = REFILL;
 		}
 		
-		final TypeToken<? extends T> TYPE = typeOf(ORIGINAL);
+		Pending(final T ORIGINAL, final T CLONE, final ClonePlan<T> PLAN, final int FROM, final int TO)
+		{
+			this(ORIGINAL, CLONE, PLAN, FROM, TO, false);
+		}
 		
-		final Class<? extends T> CLASS = TYPE.getRawType( );
+		Pending(final T ORIGINAL, final T CLONE, final ClonePlan<T> PLAN)
+		{
+			this(ORIGINAL, CLONE, PLAN, 0, 0);
+		}
 		
-		if (CLASS.isEnum( ) || isImmutable(TYPE))
-		{ // Base case, safe to shallow-copy.
-			LOGGER.debug
-			(
-				"Shallow-copying value of type {}: \"{}\"",
-				CLASS.getSimpleName( ),
-				ORIGINAL
-			);
-			
-			return ORIGINAL;
+		/**
+		 * @return The number of array elements left to clone, or zero if {@code this} isn't an array.
+		 */
+		int size( )
+		{
+			return TO - FROM;
 		}
-		else if (CLONES.containsKey(ORIGINAL))
+		
+		/**
+		 * Gets the pending elements of {@code this} array in a given range.
+		 * 
+		 * @param FROM The index of the first element, inclusive.
+		 * @param TO The index of the last element, exclusive.
+		 * 
+		 * @return The same pending clone, restricted to the given range.
+		 */
+		Pending<T> slice(final int FROM, final int TO)
 		{
-			LOGGER.debug
-			(
-				"Already cloned, reusing reference to clone."
-			);
-			
-			return CLASS.cast(CLONES.get(ORIGINAL));
+			return new Pending<T>(ORIGINAL, CLONE, PLAN, FROM, TO);
 		}
-		else
+	}
+	
+	/**
+	 * Wraps an object so that it's compared by identity, for use as a key in
+	 * maps that don't support identity comparison themselves.
+	 */
+	private static final class IdentityKey
+	{
+		private final Object OBJECT;
+		
+		private final int HASH;
+		
+		IdentityKey(final Object OBJECT)
 		{
-			final T CLONE;
+			this.OBJECT = OBJECT;
 			
-			if (CLASS.isArray( ))
-			{ // Recursively clone each element into new array.
-				final int LENGTH = getLength(ORIGINAL);
-				
-				LOGGER.debug
+			this.HASH = System.identityHashCode(OBJECT);
+		}
+		
+		@Override
+		public int hashCode( )
+		{
+			return HASH;
+		}
+		
+		@Override
+		public boolean equals(final Object OTHER)
+		{
+			if (OTHER instanceof IdentityKey)
+			{
+				return ((IdentityKey)OTHER).OBJECT == OBJECT;
+			}
+			else
+			{
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Copies the fields of a given object that can be copied as is.
+	 * 
+	 * @param ORIGINAL The object to copy fields from.
+	 * @param CLONE The object to copy fields to.
+	 * @param PLAN The clone plan for the class of {@code ORIGINAL}.
+	 * 
+	 * @throws CloningFailedException If a field couldn't be accessed.
+	 */
+	private static <T> void copyFields(final T ORIGINAL, final T CLONE, final ClonePlan<T> PLAN)
+	{
+		final Class<T> CLASS = PLAN.CLASS;
+		
+		if (PLAN.COPIER != null)
+		{ // Copy primitive and immutable fields all at once.
+			try
+			{
+				PLAN.COPIER.invokeExact((Object)CLONE, (Object)ORIGINAL);
+			}
+			catch (RuntimeException e)
+			{
+				throw e;
+			}
+			catch (Error e)
+			{
+				throw e;
+			}
+			catch (Throwable e)
+			{ // Field accessors don't throw checked exceptions.
+				throw
 				(
-					"Cloning array of type {} and length {}.",
-					CLASS.getSimpleName( ),
-					LENGTH
+					new CloningFailedException
+					(
+						e,
+						"Couldn't copy fields in class %s.",
+						CLASS.getSimpleName( )
+					)
 				);
+			}
+			
+			return;
+		}
+		
+		for (int index = 0; index < PLAN.FIELDS.length; index++)
+		{
+			if (PLAN.STRATEGIES[index] == ClonePlan.Strategy.COPY)
+			{
+				final FieldAccessor FIELD = PLAN.FIELDS[index];
 				
-				if (INSTANCE != null && INSTANCE != ORIGINAL && INSTANCE.getClass( ).isAssignableFrom(CLASS) && getLength(INSTANCE) == LENGTH)
+				try
 				{
-					CLONE = INSTANCE;
-					
-					LOGGER.debug("Array already instantiated.");
+					FIELD.copy(CLONE, ORIGINAL);
 				}
-				else
-				{
-					CLONE =
+				catch (IllegalAccessException e)
+				{ // Fields are made accessible when the plan is built.
+					throw
 					(
-						CLASS.cast
+						new CloningFailedException
 						(
-							newInstance(CLASS.getComponentType( ), LENGTH)
+							e,
+							"Field \"%s\" in class %s couldn't be accessed.",
+							FIELD,
+							CLASS.getSimpleName( )
 						)
 					);
-					
-					LOGGER.debug("Successfully instantiated array.");
-				}
-				
-				CLONES.put(ORIGINAL, CLONE);
-				
-				for (int index = 0; index < LENGTH; index++)
-				{
-					try
-					{
-						set
-						(
-							CLONE,
-							index,
-							toClone(get(ORIGINAL, index), get(CLONE, index))
-						);
-						
-						LOGGER.debug
-						(
-							"Successfully cloned element of {} array at index: {}",
-							CLASS.getSimpleName( ),
-							index
-						);
-					}
-					catch (CloningFailedException e)
-					{
-						throw
-						(
-							new CloningFailedException
-							(
-								e,
-								"Cloning array element at index %d failed.",
-								index
-							)
-						);
-					}
 				}
 			}
+		}
+	}
+	
+	/**
+	 * The state of a single call to {@link #toClone(Object)}.
+	 * 
+	 * Every call gets its own traversal, so any number of threads can clone
+	 * with the same cloner at the same time. Everything that doesn't depend on
+	 * the particular object being cloned, such as clone plans, is shared.
+	 * Subclasses decide how originals are associated with their clones, and
+	 * how pending clones are kept track of.
+	 */
+	private abstract class Traversal
+	{
+		/**
+		 * The immutable types and clone plans used for the whole traversal,
+		 * even if they're changed by another thread in the meantime.
+		 */
+		final Registry REGISTRY;
+		
+		/**
+		 * The tracer that was installed when the traversal started, or {@code
+		 * null} if none was.
+		 */
+		final Tracer TRACER;
+		
+		Traversal(final Registry REGISTRY)
+		{
+			this.REGISTRY = REGISTRY;
+			
+			this.TRACER = Tracing.tracer;
+		}
+		
+		/**
+		 * Gets the clone that a given original object is associated with.
+		 * 
+		 * @param ORIGINAL The original object.
+		 * 
+		 * @return The clone of {@code ORIGINAL}, or {@code null} if it hasn't been cloned yet.
+		 */
+		abstract Object getClone(Object ORIGINAL);
+		
+		/**
+		 * Associates a given original object with a given clone, unless it's
+		 * already associated with another one.
+		 * 
+		 * @param ORIGINAL The original object.
+		 * @param CLONE The newly allocated clone of {@code ORIGINAL}.
+		 * 
+		 * @return The clone {@code ORIGINAL} was already associated with, or {@code null} if it's now associated with {@code CLONE}.
+		 */
+		abstract Object putClone(Object ORIGINAL, Object CLONE);
+		
+		/**
+		 * Associates a given original object with its newly allocated clone,
+		 * as {@link #putClone}, reporting the new clone if tracing.
+		 * 
+		 * @param ORIGINAL The original object.
+		 * @param CLONE The newly allocated clone of {@code ORIGINAL}.
+		 * 
+		 * @return The clone {@code ORIGINAL} was already associated with, or {@code null} if it's now associated with {@code CLONE}.
+		 */
+		final Object putNewClone(final Object ORIGINAL, final Object CLONE)
+		{
+			final Object RACED = putClone(ORIGINAL, CLONE);
+			
+			if (RACED == null && TRACER != null)
+			{
+				TRACER.objectCloned(ORIGINAL, CLONE);
+			}
+			
+			return RACED;
+		}
+		
+		/**
+		 * Gets the time that cloning a root object starts at, if tracing.
+		 * 
+		 * @return The current value of {@link System#nanoTime()}, or {@code 0} if not tracing.
+		 */
+		final long start( )
+		{
+			return (TRACER == null) ? 0 : nanoTime( );
+		}
+		
+		/**
+		 * Reports that cloning a root object has finished, if tracing.
+		 * 
+		 * @param ORIGINAL The root object, or {@code null}.
+		 * @param CLONE The finished clone of {@code ORIGINAL}.
+		 * @param START When cloning {@code ORIGINAL} started, as returned by {@link #start()}.
+		 */
+		final void finished(final Object ORIGINAL, final Object CLONE, final long START)
+		{
+			if (TRACER != null && ORIGINAL != null)
+			{
+				TRACER.cloneFinished(ORIGINAL, CLONE, nanoTime( ) - START);
+			}
+		}
+		
+		/**
+		 * Adds a given pending clone to be finished later.
+		 * 
+		 * @param PENDING The pending clone.
+		 */
+		abstract void schedule(Pending<?> PENDING);
+		
+		/**
+		 * Gets the clone to use for a given object, allocating it if necessary.
+		 * 
+		 * Immutable objects are returned as is, and objects that have already
+		 * been encountered get the clone they were already associated with.
+		 * Otherwise, a new clone is allocated, unless the given potential instance
+		 * is suitable. Anything that can be copied as is gets copied immediately,
+		 * and if there's anything left that needs to be cloned, the new clone is
+		 * {@linkplain #schedule scheduled} to be finished later. The clone isn't
+		 * finished until every pending clone is.
+		 * 
+		 * @param ORIGINAL The object to create a deep copy of.
+		 * @param INSTANCE The potential instance to use for the resulting clone.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}, which may not be finished yet.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any other reason.
+		 */
+		<T> T toClone(final T ORIGINAL, final T INSTANCE)
+		{
+			if (ORIGINAL == null)
+			{
+				return null;
+			}
+			
+			/*
+			 * The class of ORIGINAL is a subtype of T, but it's only ever used to
+			 * clone ORIGINAL itself, so treating it as T is safe.
+			 */
+			@SuppressWarnings("unchecked")
+			final Class<T> CLASS = (Class<T>)ORIGINAL.getClass( );
+			
+			final T CLONE = toClone(ORIGINAL, INSTANCE, REGISTRY.getPlan(CLASS));
+			
+			if (TRACER != null)
+			{
+				TRACER.objectVisited(ORIGINAL, CLONE);
+			}
+			
+			return CLONE;
+		}
+		
+		/**
+		 * Gets the clone to use for a given object according to the given plan
+		 * for its class.
+		 * 
+		 * @param ORIGINAL The object to create a deep copy of.
+		 * @param INSTANCE The potential instance to use for the resulting clone.
+		 * @param PLAN The clone plan for the class of {@code ORIGINAL}.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}, which may not be finished yet.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any other reason.
+		 */
+		private <T> T toClone(final T ORIGINAL, final T INSTANCE, final ClonePlan<T> PLAN)
+		{
+			final Class<T> CLASS = PLAN.CLASS;
+			
+			if (isShallow(ORIGINAL, PLAN))
+			{ // Base case, safe to shallow-copy.
+				return ORIGINAL;
+			}
+			
+			final Object EXISTING = getClone(ORIGINAL);
+			
+			if (EXISTING != null)
+			{
+				return CLASS.cast(EXISTING);
+			}
+			else if (PLAN.KIND == ClonePlan.Kind.COLLECTION)
+			{
+				return toCloneCollection(ORIGINAL, INSTANCE, PLAN);
+			}
 			else
-			{ // Instantiate CLASS, recursively clone fields.
-				LOGGER.debug
-				(
-					"Cloning class type: {}", CLASS.getSimpleName( )
-				);
+			{
+				final T CLONE;
 				
-				if (INSTANCE != null && INSTANCE != ORIGINAL && INSTANCE.getClass( ).isAssignableFrom(CLASS))
+				if (PLAN.KIND == ClonePlan.Kind.ARRAY)
 				{
-					CLONE = INSTANCE;
+					final int LENGTH = getLength(ORIGINAL);
 					
-					LOGGER.debug
-					(
-						"Already instantiated class type: {}",
-						CLASS.getSimpleName( )
-					);
-				}
-				else
-				{
-					try
+					if (INSTANCE != null && INSTANCE != ORIGINAL && INSTANCE.getClass( ) == CLASS && getLength(INSTANCE) == LENGTH && claim(INSTANCE))
 					{
-						CLONE = BUILDER.instantiate(TYPE);
-						
-						LOGGER.debug
-						(
-							"Successfully instantiated class type: {}",
-							CLASS.getSimpleName( )
-						);
+						CLONE = INSTANCE;
 					}
-					catch (InstantiationFailedException e)
-					{ // Instantiating CLASS failed.
-						throw
+					else
+					{
+						CLONE =
 						(
-							new CloningFailedException
+							CLASS.cast
 							(
-								e,
-								"Couldn't instantiate class %s.",
-								CLASS.getSimpleName( )
+								newInstance(CLASS.getComponentType( ), LENGTH)
 							)
 						);
 					}
+					
+					final Object RACED = putNewClone(ORIGINAL, CLONE);
+					
+					if (RACED != null)
+					{ // Another thread cloned ORIGINAL first, use its clone.
+						return CLASS.cast(RACED);
+					}
+					else if (PLAN.COMPONENT_STRATEGY == ClonePlan.Strategy.COPY)
+					{ // Primitive or immutable elements, copy them all at once.
+						arraycopy(ORIGINAL, 0, CLONE, 0, LENGTH);
+					}
+					else if (LENGTH > 0)
+					{
+						schedule(new Pending<T>(ORIGINAL, CLONE, PLAN, 0, LENGTH));
+					}
 				}
-				
-				CLONES.put(ORIGINAL, CLONE);
-				
-				for (final Field FIELD : TYPE.getAllInstanceFields( ))
-				{ // Clone instance fields in ORIGINAL, set results in CLONE.
-					try
+				else
+				{
+					if (INSTANCE != null && INSTANCE != ORIGINAL && INSTANCE.getClass( ) == CLASS && claim(INSTANCE))
+					{
+						CLONE = INSTANCE;
+					}
+					else
 					{
-						if (isPublic(FIELD.getModifiers( )) == false)
+						try
 						{
-							FIELD.setAccessible(true);
+							CLONE = allocate(ORIGINAL, PLAN);
 						}
-						
-						final Object VALUE =
-						(
-							toClone(FIELD.get(ORIGINAL), FIELD.get(CLONE))
-						);
-						
-						FIELD.set(CLONE, VALUE);
-						
-						LOGGER.debug
-						(
-							"Successfully cloned and set field: {}", FIELD
-						);
-					}
-					catch (CloningFailedException e)
-					{ // FIELD couldn't be cloned.
-						throw
-						(
-							new CloningFailedException
+						catch (InstantiationFailedException e)
+						{ // Instantiating CLASS failed.
+							throw
 							(
-								e,
-								"Couldn't clone field \"%s\" in class %s.",
-								FIELD,
-								CLASS.getSimpleName( )
-							)
-						);
+								new CloningFailedException
+								(
+									e,
+									"Couldn't instantiate class %s.",
+									CLASS.getSimpleName( )
+								)
+							);
+						}
 					}
-					catch (SecurityException e)
-					{ // FIELD couldn't be made accessible.
-						throw
-						(
-							new CloningFailedException
-							(
-								e,
-								"Field \"%s\" in class %s couldn't be set accessible.",
-								FIELD,
-								CLASS.getSimpleName( )
-							)
-						);
+					
+					final Object RACED = putNewClone(ORIGINAL, CLONE);
+					
+					if (RACED != null)
+					{ // Another thread cloned ORIGINAL first, use its clone.
+						return CLASS.cast(RACED);
 					}
-					catch (IllegalAccessException e)
-					{ // SecurityException should always be thrown before this.
-						throw
-						(
-							new CloningFailedException
-							(
-								e,
-								"Field \"%s\" in class %s couldn't be accessed.",
-								FIELD,
-								CLASS.getSimpleName( )
-							)
-						);
+					
+					copyFields(ORIGINAL, CLONE, PLAN);
+					
+					if (PLAN.COPY_ONLY == false)
+					{
+						schedule(new Pending<T>(ORIGINAL, CLONE, PLAN));
 					}
 				}
+				
+				return CLONE;
 			}
-			
-			return CLONE;
 		}
-	}
-	
-	/**
-	 * Clones a given object.
-	 * 
-	 * The resulting clone is a deep copy of the given object. They will be
-	 * equal to each other, and changes to one will not affect the other.
-	 * 
-	 * @param <T> The type of the object to clone.
-	 * @param ORIGINAL The object to clone.
-	 * 
-	 * @return A deep copy of {@code ORIGINAL}.
-	 * 
-	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
-	 */
-	public <T> T toClone(final T ORIGINAL)
-	{
-		final T CLONE;
 		
-		try
+		/**
+		 * Gets the clone to use for the value of a given field.
+		 * 
+		 * @param HOLDER The clone that the field belongs to.
+		 * @param FIELD The field.
+		 * @param ORIGINAL The value of the field in the original object.
+		 * @param INSTANCE The potential instance to use for the resulting clone.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}, which may not be finished yet.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+		 */
+		Object toFieldClone(final Object HOLDER, final FieldAccessor FIELD, final Object ORIGINAL, final Object INSTANCE)
 		{
-			CLONE = toClone(ORIGINAL, null);
+			return toClone(ORIGINAL, INSTANCE);
 		}
-		finally
+		
+		/**
+		 * Claims a given potential instance for the clone of an object, once
+		 * it's been decided that the instance fits.
+		 * 
+		 * Every potential instance that's claimed has its contents
+		 * overwritten, so a traversal that might be offered the same instance
+		 * more than once has to refuse it after the first time.
+		 * 
+		 * @param INSTANCE The potential instance, which has the same class as the object being cloned.
+		 * 
+		 * @return {@code true} if {@code INSTANCE} can be used as the clone, else {@code false}.
+		 */
+		boolean claim(final Object INSTANCE)
+		{
+			return true;
+		}
+		
+		/**
+		 * Checks if a given object can be shallow-copied.
+		 * 
+		 * @param ORIGINAL The object to check, or {@code null}.
+		 * 
+		 * @return {@code true} if {@code ORIGINAL} can be shallow-copied, else {@code false}.
+		 */
+		boolean isShallow(final Object ORIGINAL)
+		{
+			return ORIGINAL == null || isShallow(ORIGINAL, REGISTRY.getPlan(ORIGINAL.getClass( )));
+		}
+		
+		/**
+		 * Checks if a given object can be shallow-copied according to the given
+		 * plan for its class.
+		 * 
+		 * @param ORIGINAL The object to check.
+		 * @param PLAN The clone plan for the class of {@code ORIGINAL}.
+		 * 
+		 * @return {@code true} if {@code ORIGINAL} can be shallow-copied, else {@code false}.
+		 */
+		private boolean isShallow(final Object ORIGINAL, final ClonePlan<?> PLAN)
+		{
+			if (PLAN.KIND == ClonePlan.Kind.SHALLOW)
+			{
+				return true;
+			}
+			else if (PLAN.KIND == ClonePlan.Kind.RUNTIME)
+			{
+				return REGISTRY.TYPES.contains(typeOf(ORIGINAL));
+			}
+			else
+			{
+				return false;
+			}
+		}
+		
+		/**
+		 * Clones one of the core collections by rebuilding it through its
+		 * public API.
+		 * 
+		 * The clone starts out as a presized copy of the original, holding the
+		 * very same elements, keys and values, and then each element or value
+		 * is replaced with its own clone, which may not be finished yet. Keys
+		 * are hashed or compared as soon as they're inserted, so keys, and the
+		 * comparator of a sorted map, must be shallow-copyable. Otherwise, the
+		 * map is cloned field by field instead.
+		 * 
+		 * @param ORIGINAL The collection to create a deep copy of.
+		 * @param INSTANCE The potential instance to use if {@code ORIGINAL} is cloned field by field.
+		 * @param PLAN The clone plan for the class of {@code ORIGINAL}.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}, which may not be finished yet.
+		 * 
+		 * @throws CloningFailedException If cloning an element, key or value fails.
+		 */
+		private <T> T toCloneCollection(final T ORIGINAL, final T INSTANCE, final ClonePlan<T> PLAN)
+		{
+			final Class<T> CLASS = PLAN.CLASS;
+			
+			if (INSTANCE != null && INSTANCE != ORIGINAL && INSTANCE.getClass( ) == CLASS && isRefillable(ORIGINAL, INSTANCE) && claim(INSTANCE))
+			{
+				final Object RACED = putNewClone(ORIGINAL, INSTANCE);
+				
+				if (RACED != null)
+				{ // Another thread cloned ORIGINAL first, use its clone.
+					return CLASS.cast(RACED);
+				}
+				
+				schedule(new Pending<T>(ORIGINAL, INSTANCE, PLAN, 0, 0, true));
+				
+				return INSTANCE;
+			}
+			
+			final Object CLONE;
+			
+			if (ORIGINAL instanceof TreeMap)
+			{
+				final TreeMap<?, ?> MAP = (TreeMap<?, ?>)ORIGINAL;
+				
+				final Comparator<?> COMPARATOR = MAP.comparator( );
+				
+				if (hasShallowKeys(MAP) == false)
+				{
+					return toClone(ORIGINAL, INSTANCE, PLAN.getFieldPlan( ));
+				}
+				else if (isShallow(COMPARATOR))
+				{ // Linear, since the keys are already sorted.
+					CLONE = new TreeMap<Object, Object>(MAP);
+				}
+				else if (isStateless(COMPARATOR))
+				{ // Its clone is finished as soon as it's allocated.
+					@SuppressWarnings("unchecked")
+					final TreeMap<Object, Object> TREE =
+					(
+						new TreeMap<Object, Object>
+						(
+							(Comparator<Object>)toClone(COMPARATOR, null)
+						)
+					);
+					
+					TREE.putAll(MAP);
+					
+					CLONE = TREE;
+				}
+				else
+				{
+					return toClone(ORIGINAL, INSTANCE, PLAN.getFieldPlan( ));
+				}
+			}
+			else if (ORIGINAL instanceof HashMap)
+			{
+				final HashMap<?, ?> MAP = (HashMap<?, ?>)ORIGINAL;
+				
+				if (hasShallowKeys(MAP))
+				{
+					CLONE = copyHashMap(MAP);
+				}
+				else
+				{
+					return toClone(ORIGINAL, INSTANCE, PLAN.getFieldPlan( ));
+				}
+			}
+			else if (ORIGINAL instanceof ArrayDeque)
+			{
+				CLONE = new ArrayDeque<Object>(((ArrayDeque<?>)ORIGINAL).size( ));
+			}
+			else if (ORIGINAL instanceof LinkedList)
+			{
+				CLONE = new LinkedList<Object>((LinkedList<?>)ORIGINAL);
+			}
+			else
+			{
+				CLONE = new ArrayList<Object>((ArrayList<?>)ORIGINAL);
+			}
+			
+			final Object RACED = putNewClone(ORIGINAL, CLONE);
+			
+			if (RACED != null)
+			{ // Another thread cloned ORIGINAL first, use its clone.
+				return CLASS.cast(RACED);
+			}
+			
+			schedule(new Pending<T>(ORIGINAL, CLASS.cast(CLONE), PLAN));
+			
+			return CLASS.cast(CLONE);
+		}
+		
+		/**
+		 * Checks if an existing collection of the same class as a given core
+		 * collection can be refilled with its cloned contents, instead of
+		 * allocating a new one.
+		 * 
+		 * Maps can only be refilled if they'd be rebuilt through their public
+		 * APIs anyway, and a sorted map also has to have the very same
+		 * shallow-copyable comparator, since it can't be changed.
+		 * 
+		 * @param ORIGINAL The collection to create a deep copy of.
+		 * @param INSTANCE An existing collection of the same class.
+		 * 
+		 * @return {@code true} if {@code INSTANCE} can be refilled, else {@code false}.
+		 */
+		private boolean isRefillable(final Object ORIGINAL, final Object INSTANCE)
 		{
-			CLONES.clear( );
+			if (ORIGINAL instanceof TreeMap)
+			{
+				final Comparator<?> COMPARATOR = ((TreeMap<?, ?>)ORIGINAL).comparator( );
+				
+				return
+				(
+					COMPARATOR == ((TreeMap<?, ?>)INSTANCE).comparator( ) &&
+					isShallow(COMPARATOR) &&
+					hasShallowKeys((Map<?, ?>)ORIGINAL)
+				);
+			}
+			else if (ORIGINAL instanceof Map)
+			{
+				return hasShallowKeys((Map<?, ?>)ORIGINAL);
+			}
+			else
+			{
+				return true;
+			}
 		}
 		
+		/**
+		 * Overwrites the contents of an existing core collection with the
+		 * clones of the contents of another one, reusing whatever it already
+		 * holds as potential instances for those clones.
+		 * 
+		 * Elements are paired up by position, and values by key. Only the
+		 * entries or elements that don't have a counterpart are added or
+		 * removed.
+		 * 
+		 * @param ORIGINAL The original collection.
+		 * @param CLONE An existing collection of the same class, to overwrite.
+		 * 
+		 * @throws CloningFailedException If cloning an element or value fails.
+		 */
+		private void refillCollection(final Object ORIGINAL, final Object CLONE)
+		{
+			if (CLONE instanceof Map)
+			{
+				final Map<?, ?> SOURCE = (Map<?, ?>)ORIGINAL;
+				
+				@SuppressWarnings("unchecked")
+				final Map<Object, Object> MAP = (Map<Object, Object>)CLONE;
+				
+				MAP.keySet( ).retainAll(SOURCE.keySet( ));
+				
+				for (final Map.Entry<?, ?> ENTRY : SOURCE.entrySet( ))
+				{
+					final Object KEY = ENTRY.getKey( );
+					
+					MAP.put(KEY, toClone(ENTRY.getValue( ), MAP.get(KEY)));
+				}
+			}
+			else if (CLONE instanceof List)
+			{
+				@SuppressWarnings("unchecked")
+				final List<Object> LIST = (List<Object>)CLONE;
+				
+				final ListIterator<Object> ELEMENTS = LIST.listIterator( );
+				
+				int size = 0;
+				
+				for (final Object ELEMENT : (List<?>)ORIGINAL)
+				{
+					if (ELEMENTS.hasNext( ))
+					{
+						final Object EXISTING = ELEMENTS.next( );
+						
+						ELEMENTS.set(toClone(ELEMENT, EXISTING));
+					}
+					else
+					{
+						ELEMENTS.add(toClone(ELEMENT, null));
+					}
+					
+					size++;
+				}
+				
+				LIST.subList(size, LIST.size( )).clear( );
+			}
+			else
+			{
+				@SuppressWarnings("unchecked")
+				final ArrayDeque<Object> DEQUE = (ArrayDeque<Object>)CLONE;
+				
+				int stale = DEQUE.size( );
+				
+				for (final Object ELEMENT : (ArrayDeque<?>)ORIGINAL)
+				{ // Take existing elements off the front, add clones to the back.
+					final Object EXISTING = (stale > 0) ? DEQUE.pollFirst( ) : null;
+					
+					stale--;
+					
+					DEQUE.addLast(toClone(ELEMENT, EXISTING));
+				}
+				
+				for (; stale > 0; stale--)
+				{
+					DEQUE.pollFirst( );
+				}
+			}
+		}
+		
+		/**
+		 * Replaces each element or value of a copied core collection with its
+		 * own clone.
+		 * 
+		 * @param ORIGINAL The original collection.
+		 * @param CLONE The copy of {@code ORIGINAL}, still holding the original elements or values, or no elements at all if it's a deque.
+		 * 
+		 * @throws CloningFailedException If cloning an element or value fails.
+		 */
+		private void finishCollection(final Object ORIGINAL, final Object CLONE)
+		{
+			if (CLONE instanceof Map)
+			{
+				@SuppressWarnings("unchecked")
+				final Map<Object, Object> MAP = (Map<Object, Object>)CLONE;
+				
+				for (final Map.Entry<Object, Object> ENTRY : MAP.entrySet( ))
+				{
+					ENTRY.setValue(toClone(ENTRY.getValue( ), null));
+				}
+			}
+			else if (CLONE instanceof List)
+			{
+				@SuppressWarnings("unchecked")
+				final ListIterator<Object> ELEMENTS =
+				(
+					((List<Object>)CLONE).listIterator( )
+				);
+				
+				while (ELEMENTS.hasNext( ))
+				{
+					ELEMENTS.set(toClone(ELEMENTS.next( ), null));
+				}
+			}
+			else
+			{
+				@SuppressWarnings("unchecked")
+				final ArrayDeque<Object> DEQUE = (ArrayDeque<Object>)CLONE;
+				
+				for (final Object ELEMENT : (ArrayDeque<?>)ORIGINAL)
+				{
+					DEQUE.add(toClone(ELEMENT, null));
+				}
+			}
+		}
+		
+		/**
+		 * Checks if a given object has no state at all, so that its clone is
+		 * finished as soon as it's been allocated.
+		 * 
+		 * @param ORIGINAL The object to check.
+		 * 
+		 * @return {@code true} if {@code ORIGINAL} is cloned field by field, but has no fields, else {@code false}.
+		 */
+		private boolean isStateless(final Object ORIGINAL)
+		{
+			final ClonePlan<?> PLAN = REGISTRY.getPlan(ORIGINAL.getClass( ));
+			
+			return PLAN.KIND == ClonePlan.Kind.INSTANCE && PLAN.FIELDS.length == 0;
+		}
+		
+		/**
+		 * Checks if every key of a given map can be shallow-copied.
+		 * 
+		 * @param MAP The map to check.
+		 * 
+		 * @return {@code true} if every key in {@code MAP} can be shallow-copied, else {@code false}.
+		 */
+		private boolean hasShallowKeys(final Map<?, ?> MAP)
+		{
+			for (final Object KEY : MAP.keySet( ))
+			{
+				if (isShallow(KEY) == false)
+				{
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		/**
+		 * Allocates a new clone of a given original object.
+		 * 
+		 * @param ORIGINAL The original object, an instance of a class type.
+		 * @param PLAN The clone plan for the class of {@code ORIGINAL}.
+		 * 
+		 * @return A new instance of the class of {@code ORIGINAL}, with its fields yet to be copied.
+		 * 
+		 * @throws InstantiationFailedException If the clone couldn't be allocated.
+		 * 
+		 * @see Allocation
+		 */
+		<T> T allocate(final T ORIGINAL, final ClonePlan<T> PLAN)
+		{
+			if (allocation == Allocation.RAW && RawAllocator.canAllocate(PLAN.CLASS))
+			{ // Classes that can't be allocated at all go straight to a constructor.
+				try
+				{
+					return RawAllocator.allocate(PLAN.CLASS);
+				}
+				catch (InstantiationFailedException e)
+				{ // Fall back to a constructor.
+					LOGGER.debug
+					(
+						"Couldn't allocate class type: {}",
+						PLAN.CLASS.getSimpleName( ),
+						e
+					);
+				}
+			}
+			
+			return BUILDER.instantiate(PLAN.getType(ORIGINAL));
+		}
+		
+		/**
+		 * Finishes a pending clone.
+		 * 
+		 * Each element or field that isn't copied as is gets its own clone, which
+		 * may itself be left pending.
+		 * 
+		 * @param PENDING The pending clone to finish.
+		 * 
+		 * @throws CloningFailedException If cloning an element or field fails.
+		 */
+		<T> void finish(final Pending<T> PENDING)
+		{
+			final T ORIGINAL = PENDING.ORIGINAL;
+			
+			final T CLONE = PENDING.CLONE;
+			
+			final ClonePlan<T> PLAN = PENDING.PLAN;
+			
+			final Class<T> CLASS = PLAN.CLASS;
+			
+			if (PLAN.KIND == ClonePlan.Kind.ARRAY)
+			{
+				/*
+				 * Arrays of primitives are always copied, so these are arrays of a
+				 * reference type.
+				 */
+				final Object[ ] ORIGINAL_ELEMENTS = (Object[ ])ORIGINAL;
+				
+				final Object[ ] CLONE_ELEMENTS = (Object[ ])CLONE;
+				
+				for (int index = PENDING.FROM; index < PENDING.TO; index++)
+				{
+					try
+					{
+						CLONE_ELEMENTS[index] =
+						(
+							toClone(ORIGINAL_ELEMENTS[index], CLONE_ELEMENTS[index])
+						);
+					}
+					catch (CloningFailedException e)
+					{
+						throw
+						(
+							new CloningFailedException
+							(
+								e,
+								"Cloning array element at index %d failed.",
+								index
+							)
+						);
+					}
+				}
+			}
+			else if (PLAN.KIND == ClonePlan.Kind.COLLECTION)
+			{
+				try
+				{
+					if (PENDING.REFILL)
+					{
+						refillCollection(ORIGINAL, CLONE);
+					}
+					else
+					{
+						finishCollection(ORIGINAL, CLONE);
+					}
+				}
+				catch (CloningFailedException e)
+				{
+					throw
+					(
+						new CloningFailedException
+						(
+							e,
+							"Couldn't clone element of %s.",
+							CLASS.getSimpleName( )
+						)
+					);
+				}
+			}
+			else
+			{ // Clone instance fields in ORIGINAL, set results in CLONE.
+				for (int index = 0; index < PLAN.FIELDS.length; index++)
+				{
+					if (PLAN.STRATEGIES[index] == ClonePlan.Strategy.COPY)
+					{ // Already copied.
+						continue;
+					}
+					
+					final FieldAccessor FIELD = PLAN.FIELDS[index];
+					
+					try
+					{
+						final Object VALUE =
+						(
+							toFieldClone(CLONE, FIELD, FIELD.get(ORIGINAL), FIELD.get(CLONE))
+						);
+						
+						FIELD.set(CLONE, VALUE);
+						
+						if (TRACER != null)
+						{
+							TRACER.fieldCopied(CLONE, FIELD.FIELD, VALUE);
+						}
+					}
+					catch (CloningFailedException e)
+					{ // FIELD couldn't be cloned.
+						throw
+						(
+							new CloningFailedException
+							(
+								e,
+								"Couldn't clone field \"%s\" in class %s.",
+								FIELD,
+								CLASS.getSimpleName( )
+							)
+						);
+					}
+					catch (IllegalAccessException e)
+					{ // Fields are made accessible when the plan is built.
+						throw
+						(
+							new CloningFailedException
+							(
+								e,
+								"Field \"%s\" in class %s couldn't be accessed.",
+								FIELD,
+								CLASS.getSimpleName( )
+							)
+						);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A traversal that runs entirely on the calling thread.
+	 */
+	private class SerialTraversal extends Traversal
+	{
+		SerialTraversal(final Registry REGISTRY)
+		{
+			this(REGISTRY, new IdentityTable( ));
+		}
+		
+		/**
+		 * @param REGISTRY The immutable types and clone plans to use.
+		 * @param CLONES Original objects already mapped to the clones to use for them, which new clones are added to.
+		 */
+		SerialTraversal(final Registry REGISTRY, final IdentityTable CLONES)
+		{
+			super(REGISTRY);
+			
+			this.CLONES = CLONES;
+		}
+		
+		/**
+		 * Original objects that have already been cloned, mapped to their clones.
+		 * 
+		 * When cloning a given object, a new instance of that object's type is
+		 * created to be used as the clone, which that object is then associated
+		 * with in this map. Whenever that same object is encountered again, the
+		 * reference to its associated clone is simply reused. This also handles
+		 * any-dimensional arrays that contain themselves any number of times.
+		 * Overriding implementations of {@link java.lang.Object#equals(Object)}
+		 * and {@link java.lang.Object#hashCode()} are ignored. Rather, identity is
+		 * used.
+		 * 
+		 * @see IdentityTable
+		 */
+		private final IdentityTable CLONES;
+		
+		/**
+		 * Clones that have been allocated, but whose contents haven't been cloned
+		 * yet.
+		 * 
+		 * Rather than recursing once per reference, each clone is allocated and
+		 * associated with its original in {@link #CLONES} as soon as it's first
+		 * encountered, and pushed here to have its fields or elements cloned
+		 * later. The amount of pending work depends on how wide the graph being
+		 * cloned is, not how deep it is, and it all lives on the heap.
+		 */
+		private final ArrayDeque<Pending<?>> PENDING = new ArrayDeque<Pending<?>>( );
+		
+		@Override
+		Object getClone(final Object ORIGINAL)
+		{
+			return CLONES.get(ORIGINAL);
+		}
+		
+		@Override
+		Object putClone(final Object ORIGINAL, final Object CLONE)
+		{
+			return CLONES.put(ORIGINAL, CLONE);
+		}
+		
+		@Override
+		void schedule(final Pending<?> PENDING)
+		{
+			this.PENDING.push(PENDING);
+		}
+		
+		/**
+		 * Clones a given object, finishing every pending clone along the way.
+		 * 
+		 * @param ORIGINAL The object to clone.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+		 */
+		<T> T run(final T ORIGINAL)
+		{
+			return run(ORIGINAL, null);
+		}
+		
+		/**
+		 * Clones a given object into a given potential instance, if it fits,
+		 * finishing every pending clone along the way.
+		 * 
+		 * @param ORIGINAL The object to clone.
+		 * @param INSTANCE The potential instance to use for the resulting clone.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+		 */
+		<T> T run(final T ORIGINAL, final T INSTANCE)
+		{
+			final long START = start( );
+			
+			final T CLONE = toClone(ORIGINAL, INSTANCE);
+			
+			finishAll( );
+			
+			finished(ORIGINAL, CLONE, START);
+			
+			return CLONE;
+		}
+		
+		/**
+		 * Clones each of the given objects, in the same traversal, finishing
+		 * every pending clone along the way.
+		 * 
+		 * @param ORIGINALS The objects to clone.
+		 * @param CLONES Where to put the clone of each object in {@code ORIGINALS}, at the same index.
+		 * 
+		 * @throws CloningFailedException If cloning any of {@code ORIGINALS} fails for any reason.
+		 */
+		void runAll(final Object[ ] ORIGINALS, final Object[ ] CLONES)
+		{
+			for (int index = 0; index < ORIGINALS.length; index++)
+			{
+				CLONES[index] = toClone(ORIGINALS[index], null);
+			}
+			
+			finishAll( );
+		}
+		
+		/**
+		 * Finishes every pending clone.
+		 */
+		private void finishAll( )
+		{
+			while (PENDING.isEmpty( ) == false)
+			{
+				finish(PENDING.pop( ));
+			}
+		}
+	}
+	
+	/**
+	 * A traversal that copies an object graph into another one, reusing every
+	 * object of the other graph that fits as the clone of the object in the
+	 * same place.
+	 * 
+	 * Objects of the other graph might be reachable from more than one place,
+	 * but each one is only ever reused once, so that it's not overwritten
+	 * with the contents of two different objects.
+	 */
+	private final class CopyTraversal extends SerialTraversal
+	{
+		/**
+		 * Potential instances that have already been reused.
+		 */
+		private final IdentityTable CLAIMED = new IdentityTable( );
+		
+		CopyTraversal(final Registry REGISTRY, final IdentityTable CLONES)
+		{
+			super(REGISTRY, CLONES);
+		}
+		
+		@Override
+		boolean claim(final Object INSTANCE)
+		{
+			return CLAIMED.put(INSTANCE, INSTANCE) == null;
+		}
+	}
+	
+	/**
+	 * Whether the methods of an interface can be invoked reflectively from
+	 * here, by a proxy forwarding them to another implementation.
+	 * 
+	 * That takes the interface, and every interface declaring its methods,
+	 * to be public and nested only in public classes. Otherwise, {@link
+	 * Method#invoke(Object, Object...)} fails on the first invocation.
+	 */
+	private static final ClassValue<Boolean> INVOCABLE =
+	(
+		new ClassValue<Boolean>( )
+		{
+			private boolean isAccessible(final Class<?> CLASS)
+			{
+				for (Class<?> type = CLASS; type != null; type = type.getEnclosingClass( ))
+				{
+					if (isPublic(type.getModifiers( )) == false)
+					{
+						return false;
+					}
+				}
+				
+				return true;
+			}
+			
+			@Override
+			protected Boolean computeValue(final Class<?> INTERFACE)
+			{
+				if (INTERFACE.isInterface( ) == false || isAccessible(INTERFACE) == false)
+				{
+					return FALSE;
+				}
+				
+				for (final Method METHOD : INTERFACE.getMethods( ))
+				{
+					if (isAccessible(METHOD.getDeclaringClass( )) == false)
+					{
+						return FALSE;
+					}
+				}
+				
+				return TRUE;
+			}
+		}
+	);
+	
+	/**
+	 * Clones objects eagerly, except for values of interface-typed fields,
+	 * which get proxies that only clone them when first invoked.
+	 * 
+	 * The traversal lives on as long as any of its proxies do, so objects
+	 * that have already been cloned are reused when a proxy clones its
+	 * value, just like in a single traversal. Proxies can be invoked from any
+	 * thread, so everything that touches the traversal is synchronized.
+	 * 
+	 * An object only ever has one clone. Once an object that was deferred
+	 * behind a proxy is cloned, whether by invoking the proxy or by reaching
+	 * it through a field, element or value that can't hold a proxy, every
+	 * field holding the proxy is set to the clone instead, as soon as the
+	 * clone is finished.
+	 */
+	private final class LazyTraversal extends Traversal
+	{
+		/**
+		 * Original objects mapped to their clones, like {@link
+		 * SerialTraversal#CLONES}, not including proxies.
+		 */
+		private final IdentityHashMap<Object, Object> CLONES =
+		(
+			new IdentityHashMap<Object, Object>( )
+		);
+		
+		/**
+		 * Original objects mapped to the proxies that stand in for them, so that
+		 * an object referenced by several fields only gets one proxy.
+		 */
+		private final IdentityHashMap<Object, Object> PROXIES =
+		(
+			new IdentityHashMap<Object, Object>( )
+		);
+		
+		/**
+		 * Original objects mapped to the clones with fields holding their
+		 * proxies, each clone followed by the field.
+		 */
+		private final IdentityHashMap<Object, List<Object>> REFERRERS =
+		(
+			new IdentityHashMap<Object, List<Object>>( )
+		);
+		
+		/**
+		 * Fields to set once the current run is finished, each as the clone
+		 * holding it, followed by the field and its new value.
+		 */
+		private final List<Object> PATCHES = new ArrayList<Object>( );
+		
+		private final ArrayDeque<Pending<?>> PENDING = new ArrayDeque<Pending<?>>( );
+		
+		LazyTraversal(final Registry REGISTRY)
+		{
+			super(REGISTRY);
+		}
+		
+		@Override
+		Object getClone(final Object ORIGINAL)
+		{
+			return CLONES.get(ORIGINAL);
+		}
+		
+		@Override
+		Object putClone(final Object ORIGINAL, final Object CLONE)
+		{
+			final Object PREVIOUS = CLONES.put(ORIGINAL, CLONE);
+			
+			final List<Object> REFERRERS = this.REFERRERS.remove(ORIGINAL);
+			
+			if (REFERRERS != null)
+			{ // Replace the proxy everywhere, once CLONE is finished.
+				PROXIES.remove(ORIGINAL);
+				
+				for (int index = 0; index < REFERRERS.size( ); index += 2)
+				{
+					PATCHES.add(REFERRERS.get(index));
+					
+					PATCHES.add(REFERRERS.get(index + 1));
+					
+					PATCHES.add(CLONE);
+				}
+			}
+			
+			return PREVIOUS;
+		}
+		
+		@Override
+		void schedule(final Pending<?> PENDING)
+		{
+			this.PENDING.push(PENDING);
+		}
+		
+		/**
+		 * Gets the clone to use for the value of a given field, which is a
+		 * proxy if the field is declared as an interface type that a proxy can
+		 * forward to, and the value hasn't been cloned yet.
+		 */
+		@Override
+		Object toFieldClone(final Object HOLDER, final FieldAccessor FIELD, final Object ORIGINAL, final Object INSTANCE)
+		{
+			final Class<?> DECLARED = FIELD.FIELD.getType( );
+			
+			if (INVOCABLE.get(DECLARED) == FALSE || ORIGINAL == null || isShallow(ORIGINAL))
+			{
+				return toClone(ORIGINAL, INSTANCE);
+			}
+			
+			final Object CLONE = CLONES.get(ORIGINAL);
+			
+			if (CLONE != null)
+			{
+				return CLONE;
+			}
+			
+			final Object PROXY = toProxy(DECLARED, ORIGINAL);
+			
+			List<Object> referrers = REFERRERS.get(ORIGINAL);
+			
+			if (referrers == null)
+			{
+				referrers = new ArrayList<Object>(2);
+				
+				REFERRERS.put(ORIGINAL, referrers);
+			}
+			
+			referrers.add(HOLDER);
+			
+			referrers.add(FIELD);
+			
+			return PROXY;
+		}
+		
+		/**
+		 * Gets a proxy that clones a given object when it's first invoked.
+		 * 
+		 * @param INTERFACE The interface for the proxy to implement, which {@code ORIGINAL} implements.
+		 * @param ORIGINAL The object to clone.
+		 * 
+		 * @return A proxy implementing {@code INTERFACE}, which delegates to the clone of {@code ORIGINAL}.
+		 */
+		synchronized <T> T toProxy(final Class<T> INTERFACE, final Object ORIGINAL)
+		{
+			final Object EXISTING = PROXIES.get(ORIGINAL);
+			
+			if (INTERFACE.isInstance(EXISTING))
+			{
+				return INTERFACE.cast(EXISTING);
+			}
+			
+			LOGGER.debug
+			(
+				"Deferring clone of {} behind proxy for {}.",
+				ORIGINAL.getClass( ).getSimpleName( ),
+				INTERFACE.getSimpleName( )
+			);
+			
+			final T PROXY =
+			(
+				Builder.newProxy
+				(
+					INTERFACE,
+					new InvocationHandler( )
+					{
+						/**
+						 * The clone of ORIGINAL, once it's been cloned.
+						 */
+						private volatile Object target = null;
+						
+						@Override
+						public Object invoke(final Object PROXY, final Method METHOD, final Object[ ] ARGUMENTS) throws Throwable
+						{
+							if (METHOD.getDeclaringClass( ) == Object.class && METHOD.getName( ).equals("equals") && ARGUMENTS[0] == PROXY)
+							{ // Forwarded, it'd be false wherever equality is identity, since the clone isn't the proxy.
+								return TRUE;
+							}
+							else if (target == null)
+							{
+								target = run(ORIGINAL);
+							}
+							
+							try
+							{
+								return METHOD.invoke(target, ARGUMENTS);
+							}
+							catch (InvocationTargetException e)
+							{
+								throw e.getCause( );
+							}
+						}
+					}
+				)
+			);
+			
+			PROXIES.put(ORIGINAL, PROXY);
+			
+			return PROXY;
+		}
+		
+		/**
+		 * Clones a given object, finishing every pending clone along the way,
+		 * except for those deferred behind proxies.
+		 * 
+		 * @param ORIGINAL The object to clone.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}, which may refer to proxies.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+		 */
+		synchronized <T> T run(final T ORIGINAL)
+		{
+			final long START = start( );
+			
+			final T CLONE = toClone(ORIGINAL, null);
+			
+			while (PENDING.isEmpty( ) == false)
+			{
+				finish(PENDING.pop( ));
+			}
+			
+			for (int index = 0; index < PATCHES.size( ); index += 3)
+			{
+				final FieldAccessor FIELD = (FieldAccessor)PATCHES.get(index + 1);
+				
+				try
+				{
+					FIELD.set(PATCHES.get(index), PATCHES.get(index + 2));
+				}
+				catch (IllegalAccessException e)
+				{ // Fields are made accessible when the plan is built.
+					throw
+					(
+						new CloningFailedException
+						(
+							e,
+							"Field \"%s\" in class %s couldn't be accessed.",
+							FIELD,
+							FIELD.FIELD.getDeclaringClass( ).getSimpleName( )
+						)
+					);
+				}
+			}
+			
+			PATCHES.clear( );
+			
+			finished(ORIGINAL, CLONE, START);
+			
+			return CLONE;
+		}
+	}
+	
+	/**
+	 * Checks if two arrays of the same primitive or immutable component type
+	 * hold the same elements.
+	 * 
+	 * @param FIRST An array.
+	 * @param SECOND Another array of the same class as {@code FIRST}.
+	 * 
+	 * @return {@code true} if both arrays have the same length, and the same primitive values or identical references at each index, else {@code false}.
+	 */
+	private static boolean hasSameElements(final Object FIRST, final Object SECOND)
+	{
+		if (FIRST instanceof Object[ ])
+		{
+			final Object[ ] ELEMENTS = (Object[ ])FIRST;
+			
+			final Object[ ] OTHERS = (Object[ ])SECOND;
+			
+			if (ELEMENTS.length != OTHERS.length)
+			{
+				return false;
+			}
+			
+			for (int index = 0; index < ELEMENTS.length; index++)
+			{
+				if (ELEMENTS[index] != OTHERS[index])
+				{
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		else if (FIRST instanceof int[ ])
+		{
+			return Arrays.equals((int[ ])FIRST, (int[ ])SECOND);
+		}
+		else if (FIRST instanceof long[ ])
+		{
+			return Arrays.equals((long[ ])FIRST, (long[ ])SECOND);
+		}
+		else if (FIRST instanceof double[ ])
+		{
+			return Arrays.equals((double[ ])FIRST, (double[ ])SECOND);
+		}
+		else if (FIRST instanceof byte[ ])
+		{
+			return Arrays.equals((byte[ ])FIRST, (byte[ ])SECOND);
+		}
+		else if (FIRST instanceof char[ ])
+		{
+			return Arrays.equals((char[ ])FIRST, (char[ ])SECOND);
+		}
+		else if (FIRST instanceof float[ ])
+		{
+			return Arrays.equals((float[ ])FIRST, (float[ ])SECOND);
+		}
+		else if (FIRST instanceof short[ ])
+		{
+			return Arrays.equals((short[ ])FIRST, (short[ ])SECOND);
+		}
+		else
+		{
+			return Arrays.equals((boolean[ ])FIRST, (boolean[ ])SECOND);
+		}
+	}
+	
+	/**
+	 * Copies a given array of a primitive or immutable component type.
+	 * 
+	 * @param ARRAY The array to copy.
+	 * 
+	 * @return A new array of the same class and length as {@code ARRAY}, holding the same elements.
+	 */
+	private static Object copyOf(final Object ARRAY)
+	{
+		final int LENGTH = getLength(ARRAY);
+		
+		final Object COPY = newInstance(ARRAY.getClass( ).getComponentType( ), LENGTH);
+		
+		arraycopy(ARRAY, 0, COPY, 0, LENGTH);
+		
+		return COPY;
+	}
+	
+	/**
+	 * Looks up an accessible instance field declared by {@code HashMap}.
+	 * 
+	 * @param NAME The name of the field.
+	 * 
+	 * @return An accessor for the field named {@code NAME}, or {@code null} if it doesn't exist or can't be made accessible.
+	 */
+	private static FieldAccessor hashMapField(final String NAME)
+	{
+		for (final FieldAccessor ACCESSOR : FieldAccessor.forClass(HashMap.class))
+		{
+			if (ACCESSOR.ACCESSIBLE && ACCESSOR.FIELD.getDeclaringClass( ) == HashMap.class && ACCESSOR.FIELD.getName( ).equals(NAME))
+			{
+				return ACCESSOR;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Copies a given {@code HashMap}, with the same capacity and load factor
+	 * if they can be read.
+	 * 
+	 * Neither is exposed by the public API, and both the copy constructor and
+	 * {@link HashMap#clone()} size the copy for the number of entries, with
+	 * the default load factor, which changes its iteration order, and how
+	 * soon it's resized, compared to the original. If the fields of {@code
+	 * HashMap} aren't accessible, for example if {@code java.base} isn't
+	 * opened to this module, that's what the copy ends up with.
+	 * 
+	 * @param MAP The map to copy.
+	 * 
+	 * @return A new {@code HashMap}, mapping the same keys to the same values as {@code MAP}.
+	 */
+	private static HashMap<Object, Object> copyHashMap(final HashMap<?, ?> MAP)
+	{
+		if (HASH_MAP_TABLE != null && HASH_MAP_LOAD_FACTOR != null)
+		{
+			try
+			{
+				final Object TABLE = HASH_MAP_TABLE.get(MAP);
+				
+				if (TABLE != null)
+				{
+					final HashMap<Object, Object> COPY =
+					(
+						new HashMap<Object, Object>
+						(
+							getLength(TABLE),
+							((Float)HASH_MAP_LOAD_FACTOR.get(MAP)).floatValue( )
+						)
+					);
+					
+					COPY.putAll(MAP);
+					
+					return COPY;
+				}
+			}
+			catch (final IllegalAccessException e)
+			{
+				LOGGER.debug("Couldn't read the capacity of a HashMap.", e);
+			}
+		}
+		
+		return new HashMap<Object, Object>(MAP);
+	}
+	
+	/**
+	 * Takes repeated snapshots of object graphs that change little from one
+	 * snapshot to the next.
+	 * 
+	 * Each snapshot is compared field by field with the previous one, and
+	 * every object whose fields, elements or values still match its previous
+	 * clone, and that only refers to objects that match as well, reuses that
+	 * clone instead of being cloned again. Only objects that changed, and the
+	 * objects that refer to them, directly or indirectly, get new clones. The
+	 * whole original graph is still walked to find what changed, but clones
+	 * are only allocated in proportion to the change.
+	 * 
+	 * Since consecutive snapshots share their unchanged parts, snapshots
+	 * must be treated as read-only. Changing one of them changes every other
+	 * snapshot that shares the same part.
+	 * 
+	 * @see Cloner#newIncremental()
+	 */
+	public final class Incremental
+	{
+		/**
+		 * The registry the previous snapshot was taken with.
+		 */
+		private Registry previousRegistry = null;
+		
+		/**
+		 * Original objects in the previous snapshot, mapped to their clones.
+		 */
+		private IdentityTable previous = new IdentityTable( );
+		
+		private Incremental( )
+		{
+		}
+		
+		/**
+		 * Takes a snapshot of a given object, sharing whatever hasn't changed
+		 * since the previous snapshot.
+		 * 
+		 * If nothing has changed at all, the previous snapshot itself is
+		 * returned. Changing the immutable types of the cloner in between
+		 * snapshots discards the previous one, as if {@link #forget()} had
+		 * been called.
+		 * 
+		 * @param <T> The type of the object to clone.
+		 * @param ORIGINAL The object to clone.
+		 * 
+		 * @return A deep copy of {@code ORIGINAL}, sharing the unchanged parts of the previous snapshot.
+		 * 
+		 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+		 */
+		public synchronized <T> T toClone(final T ORIGINAL)
+		{
+			final Registry REGISTRY = registry;
+			
+			if (REGISTRY != previousRegistry)
+			{
+				forget( );
+				
+				previousRegistry = REGISTRY;
+			}
+			
+			final IdentityTable CLONES = new IdentityTable(previous.size( ));
+			
+			final SerialTraversal TRAVERSAL = new SerialTraversal(REGISTRY, CLONES);
+			
+			if (previous.isEmpty( ) == false)
+			{
+				reuseUnchanged(TRAVERSAL, ORIGINAL, CLONES);
+			}
+			
+			try
+			{
+				final T CLONE = TRAVERSAL.run(ORIGINAL);
+				
+				previous = CLONES;
+				
+				return CLONE;
+			}
+			catch (CloningFailedException e)
+			{ // Don't compare the next snapshot with a broken one.
+				forget( );
+				
+				throw e;
+			}
+		}
+		
+		/**
+		 * Forgets the previous snapshot, so that the next one is cloned from
+		 * scratch, and the originals it was taken of can be collected.
+		 */
+		public synchronized void forget( )
+		{
+			previous = new IdentityTable( );
+			
+			previousRegistry = null;
+		}
+		
+		/**
+		 * Maps every object reachable from a given object that's unchanged
+		 * since the previous snapshot to its previous clone.
+		 * 
+		 * An object is unchanged if it matches its previous clone, and every
+		 * object it refers to is unchanged too, so that its previous clone can
+		 * be shared as is.
+		 * 
+		 * @param TRAVERSAL The traversal the new snapshot is taken with.
+		 * @param ROOT The object to take a snapshot of.
+		 * @param CLONES Where to map unchanged objects to their previous clones.
+		 */
+		private void reuseUnchanged(final Traversal TRAVERSAL, final Object ROOT, final IdentityTable CLONES)
+		{
+			/*
+			 * Every object that needs to be cloned, mapped to the objects that
+			 * refer to it.
+			 */
+			final IdentityHashMap<Object, List<Object>> REFERRERS =
+			(
+				new IdentityHashMap<Object, List<Object>>( )
+			);
+			
+			final IdentityHashMap<Object, Object> CHANGED =
+			(
+				new IdentityHashMap<Object, Object>( )
+			);
+			
+			final ArrayDeque<Object> UNVISITED = new ArrayDeque<Object>( );
+			
+			if (TRAVERSAL.isShallow(ROOT))
+			{
+				return;
+			}
+			
+			REFERRERS.put(ROOT, new ArrayList<Object>(1));
+			
+			UNVISITED.push(ROOT);
+			
+			final List<Object> CHILDREN = new ArrayList<Object>( );
+			
+			while (UNVISITED.isEmpty( ) == false)
+			{
+				final Object ORIGINAL = UNVISITED.pop( );
+				
+				CHILDREN.clear( );
+				
+				if (matchesClone(TRAVERSAL, ORIGINAL, previous.get(ORIGINAL), CHILDREN) == false)
+				{
+					CHANGED.put(ORIGINAL, ORIGINAL);
+				}
+				
+				for (final Object CHILD : CHILDREN)
+				{
+					List<Object> referrers = REFERRERS.get(CHILD);
+					
+					if (referrers == null)
+					{
+						referrers = new ArrayList<Object>(1);
+						
+						REFERRERS.put(CHILD, referrers);
+						
+						UNVISITED.push(CHILD);
+					}
+					
+					referrers.add(ORIGINAL);
+				}
+			}
+			
+			UNVISITED.addAll(CHANGED.keySet( ));
+			
+			while (UNVISITED.isEmpty( ) == false)
+			{ // Anything that refers to a changed object has changed too.
+				for (final Object REFERRER : REFERRERS.get(UNVISITED.pop( )))
+				{
+					if (CHANGED.put(REFERRER, REFERRER) == null)
+					{
+						UNVISITED.push(REFERRER);
+					}
+				}
+			}
+			
+			for (final Object ORIGINAL : REFERRERS.keySet( ))
+			{
+				if (CHANGED.containsKey(ORIGINAL) == false)
+				{
+					CLONES.put(ORIGINAL, previous.get(ORIGINAL));
+				}
+			}
+			
+			LOGGER.debug
+			(
+				"Reusing {} of {} clones from previous snapshot.",
+				REFERRERS.size( ) - CHANGED.size( ),
+				REFERRERS.size( )
+			);
+		}
+		
+		/**
+		 * Checks if a given object still matches its clone from the previous
+		 * snapshot, and collects every object it refers to that would be
+		 * cloned along with it.
+		 * 
+		 * @param TRAVERSAL The traversal the new snapshot is taken with.
+		 * @param ORIGINAL The object to check, which needs to be cloned.
+		 * @param CLONE The clone of {@code ORIGINAL} in the previous snapshot, or {@code null} if there wasn't one.
+		 * @param CHILDREN Where to add the objects {@code ORIGINAL} refers to that need to be cloned.
+		 * 
+		 * @return {@code true} if every field, element or value of {@code ORIGINAL} matches the one in {@code CLONE}, else {@code false}.
+		 */
+		private boolean matchesClone(final Traversal TRAVERSAL, final Object ORIGINAL, final Object CLONE, final List<Object> CHILDREN)
+		{
+			final ClonePlan<?> PLAN = TRAVERSAL.REGISTRY.getPlan(ORIGINAL.getClass( ));
+			
+			boolean matching = (CLONE != null && CLONE.getClass( ) == ORIGINAL.getClass( ));
+			
+			if (PLAN.KIND == ClonePlan.Kind.ARRAY)
+			{
+				if (PLAN.COMPONENT_STRATEGY == ClonePlan.Strategy.COPY)
+				{
+					return matching && hasSameElements(ORIGINAL, CLONE);
+				}
+				
+				final Object[ ] ELEMENTS = (Object[ ])ORIGINAL;
+				
+				matching = matching && ((Object[ ])CLONE).length == ELEMENTS.length;
+				
+				for (int index = 0; index < ELEMENTS.length; index++)
+				{
+					final Object PREVIOUS = matching ? ((Object[ ])CLONE)[index] : null;
+					
+					matching = matchesReference(TRAVERSAL, ELEMENTS[index], PREVIOUS, CHILDREN) && matching;
+				}
+			}
+			else if (PLAN.KIND == ClonePlan.Kind.COLLECTION)
+			{
+				if (ORIGINAL instanceof Map)
+				{
+					final Map<?, ?> MAP = (Map<?, ?>)ORIGINAL;
+					
+					final Map<?, ?> PREVIOUS = matching ? (Map<?, ?>)CLONE : null;
+					
+					matching = matching && PREVIOUS.size( ) == MAP.size( );
+					
+					if (MAP instanceof TreeMap)
+					{ // Maps with comparators that have to be cloned are rebuilt.
+						matching = matching && TRAVERSAL.isShallow(((TreeMap<?, ?>)MAP).comparator( ));
+					}
+					
+					for (final Map.Entry<?, ?> ENTRY : MAP.entrySet( ))
+					{
+						final Object KEY = ENTRY.getKey( );
+						
+						if (TRAVERSAL.isShallow(KEY))
+						{
+							matching = matching && PREVIOUS.containsKey(KEY);
+						}
+						else
+						{ // Maps with keys that have to be cloned are rebuilt.
+							matching = false;
+							
+							CHILDREN.add(KEY);
+						}
+						
+						final Object VALUE = matching ? PREVIOUS.get(KEY) : null;
+						
+						matching = matchesReference(TRAVERSAL, ENTRY.getValue( ), VALUE, CHILDREN) && matching;
+					}
+				}
+				else
+				{
+					final Collection<?> ELEMENTS = (Collection<?>)ORIGINAL;
+					
+					final Iterator<?> PREVIOUS =
+					(
+						matching && ((Collection<?>)CLONE).size( ) == ELEMENTS.size( ) ? ((Collection<?>)CLONE).iterator( ) : null
+					);
+					
+					matching = (PREVIOUS != null);
+					
+					for (final Object ELEMENT : ELEMENTS)
+					{
+						final Object ELEMENT_CLONE = matching ? PREVIOUS.next( ) : null;
+						
+						matching = matchesReference(TRAVERSAL, ELEMENT, ELEMENT_CLONE, CHILDREN) && matching;
+					}
+				}
+			}
+			else
+			{
+				for (int index = 0; index < PLAN.FIELDS.length; index++)
+				{
+					final FieldAccessor FIELD = PLAN.FIELDS[index];
+					
+					try
+					{
+						final Object VALUE = FIELD.get(ORIGINAL);
+						
+						final Object PREVIOUS = matching ? FIELD.get(CLONE) : null;
+						
+						if (PLAN.STRATEGIES[index] == ClonePlan.Strategy.CLONE)
+						{
+							matching = matchesReference(TRAVERSAL, VALUE, PREVIOUS, CHILDREN) && matching;
+						}
+						else if (FIELD.FIELD.getType( ).isPrimitive( ))
+						{ // Boxed, compare by value.
+							matching = matching && VALUE.equals(PREVIOUS);
+						}
+						else
+						{
+							matching = matching && VALUE == PREVIOUS;
+						}
+					}
+					catch (IllegalAccessException e)
+					{ // Fields are made accessible when the plan is built.
+						throw
+						(
+							new CloningFailedException
+							(
+								e,
+								"Field \"%s\" in class %s couldn't be accessed.",
+								FIELD,
+								PLAN.CLASS.getSimpleName( )
+							)
+						);
+					}
+				}
+			}
+			
+			return matching;
+		}
+		
+		/**
+		 * Checks if a given reference still matches the one in the previous
+		 * snapshot, and collects the object it refers to if that object needs
+		 * to be cloned.
+		 * 
+		 * @param TRAVERSAL The traversal the new snapshot is taken with.
+		 * @param VALUE The reference in the original graph.
+		 * @param PREVIOUS The reference in the same place in the previous snapshot.
+		 * @param CHILDREN Where to add {@code VALUE} if it needs to be cloned.
+		 * 
+		 * @return {@code true} if {@code VALUE} is the same shallow-copyable object as {@code PREVIOUS}, or the original {@code PREVIOUS} was cloned from, else {@code false}.
+		 */
+		private boolean matchesReference(final Traversal TRAVERSAL, final Object VALUE, final Object PREVIOUS, final List<Object> CHILDREN)
+		{
+			if (TRAVERSAL.isShallow(VALUE))
+			{
+				return VALUE == PREVIOUS;
+			}
+			else
+			{
+				CHILDREN.add(VALUE);
+				
+				return PREVIOUS != null && previous.get(VALUE) == PREVIOUS;
+			}
+		}
+	}
+	
+	/**
+	 * The state of an object graph at some point in time, which the graph
+	 * can later be restored to in place.
+	 * 
+	 * Rather than cloning the graph, a snapshot records the contents of every
+	 * object in it that isn't shallow-copyable: the values of its fields, the
+	 * elements of an array or a collection, or the keys and values of a map.
+	 * Those contents still refer to the very same objects, so restoring
+	 * just writes them back, without allocating or looking anything up,
+	 * except for the entries and nodes of the collections that have to be
+	 * rebuilt. The objects themselves are never replaced, so any reference to
+	 * one of them held outside of the graph stays valid after a rollback.
+	 * 
+	 * Objects that are added to the graph after the snapshot is taken aren't
+	 * part of it, so they're simply left behind by a restore. Objects that
+	 * are removed are put back, with their contents restored as well.
+	 * 
+	 * @param <T> The type of the object the snapshot was taken of.
+	 * 
+	 * @see Cloner#toSnapshot(Object)
+	 */
+	public final class Snapshot<T>
+	{
+		private final T ROOT;
+		
+		/**
+		 * The registry the snapshot was taken with, for the clone plans of the
+		 * recorded objects.
+		 */
+		private final Registry REGISTRY;
+		
+		/**
+		 * Every recorded object that isn't a core collection.
+		 */
+		private final Object[ ] OBJECTS;
+		
+		/**
+		 * The recorded contents of the object at the same index in {@link
+		 * #OBJECTS}, either a copy of an array, or the values of every field.
+		 */
+		private final Object[ ] CONTENTS;
+		
+		/**
+		 * Every recorded core collection.
+		 */
+		private final Object[ ] COLLECTIONS;
+		
+		/**
+		 * The recorded elements of the collection at the same index in {@link
+		 * #COLLECTIONS}, or the keys and values of a map, alternating.
+		 */
+		private final Object[ ][ ] ELEMENTS;
+		
+		/**
+		 * Records the contents of every object reachable from a given object.
+		 * 
+		 * @param ROOT The object to take a snapshot of.
+		 * 
+		 * @throws CloningFailedException If a field couldn't be accessed.
+		 */
+		private Snapshot(final T ROOT)
+		{
+			this.ROOT = ROOT;
+			
+			this.REGISTRY = registry;
+			
+			/*
+			 * The traversal's clones are used to keep track of which objects
+			 * have already been recorded, mapped to their contents.
+			 */
+			final SerialTraversal TRAVERSAL = new SerialTraversal(REGISTRY);
+			
+			final List<Object> OBJECTS = new ArrayList<Object>( );
+			
+			final List<Object> CONTENTS = new ArrayList<Object>( );
+			
+			final List<Object> COLLECTIONS = new ArrayList<Object>( );
+			
+			final List<Object[ ]> ELEMENTS = new ArrayList<Object[ ]>( );
+			
+			final ArrayDeque<Object> UNVISITED = new ArrayDeque<Object>( );
+			
+			if (TRAVERSAL.isShallow(ROOT) == false)
+			{
+				UNVISITED.push(ROOT);
+			}
+			
+			while (UNVISITED.isEmpty( ) == false)
+			{
+				final Object ORIGINAL = UNVISITED.pop( );
+				
+				if (TRAVERSAL.getClone(ORIGINAL) != null)
+				{ // Already recorded.
+					continue;
+				}
+				
+				final ClonePlan<?> PLAN = REGISTRY.getPlan(ORIGINAL.getClass( ));
+				
+				if (PLAN.KIND == ClonePlan.Kind.ARRAY && PLAN.COMPONENT_STRATEGY == ClonePlan.Strategy.COPY)
+				{ // Nothing to visit, only primitives or immutable elements.
+					final Object COPY = copyOf(ORIGINAL);
+					
+					TRAVERSAL.putClone(ORIGINAL, COPY);
+					
+					OBJECTS.add(ORIGINAL);
+					
+					CONTENTS.add(COPY);
+					
+					continue;
+				}
+				
+				final Object[ ] RECORDED = record(ORIGINAL, PLAN);
+				
+				TRAVERSAL.putClone(ORIGINAL, RECORDED);
+				
+				if (PLAN.KIND == ClonePlan.Kind.COLLECTION)
+				{
+					COLLECTIONS.add(ORIGINAL);
+					
+					ELEMENTS.add(RECORDED);
+				}
+				else
+				{
+					OBJECTS.add(ORIGINAL);
+					
+					CONTENTS.add(RECORDED);
+				}
+				
+				final boolean FIELDS = (PLAN.KIND != ClonePlan.Kind.ARRAY && PLAN.KIND != ClonePlan.Kind.COLLECTION);
+				
+				for (int index = 0; index < RECORDED.length; index++)
+				{
+					if (FIELDS && PLAN.STRATEGIES[index] == ClonePlan.Strategy.COPY)
+					{ // Primitive or immutable.
+						continue;
+					}
+					
+					final Object VALUE = RECORDED[index];
+					
+					if (TRAVERSAL.isShallow(VALUE) == false && TRAVERSAL.getClone(VALUE) == null)
+					{
+						UNVISITED.push(VALUE);
+					}
+				}
+			}
+			
+			this.OBJECTS = OBJECTS.toArray( );
+			
+			this.CONTENTS = CONTENTS.toArray( );
+			
+			this.COLLECTIONS = COLLECTIONS.toArray( );
+			
+			this.ELEMENTS = ELEMENTS.toArray(new Object[ELEMENTS.size( )][ ]);
+			
+			LOGGER.debug
+			(
+				"Took snapshot of {} objects and {} collections.",
+				this.OBJECTS.length,
+				this.COLLECTIONS.length
+			);
+		}
+		
+		/**
+		 * Records the contents of a given object.
+		 * 
+		 * @param ORIGINAL The object to record, which isn't shallow-copyable, and isn't an array of primitives or immutable elements.
+		 * @param PLAN The clone plan for the class of {@code ORIGINAL}.
+		 * 
+		 * @return The elements of {@code ORIGINAL} if it's an array or a collection, alternating keys and values if it's a map, or else the values of its fields, in the same order as in {@code PLAN}.
+		 * 
+		 * @throws CloningFailedException If a field couldn't be accessed.
+		 */
+		private Object[ ] record(final Object ORIGINAL, final ClonePlan<?> PLAN)
+		{
+			if (PLAN.KIND == ClonePlan.Kind.ARRAY)
+			{
+				return ((Object[ ])ORIGINAL).clone( );
+			}
+			else if (PLAN.KIND == ClonePlan.Kind.COLLECTION)
+			{
+				if (ORIGINAL instanceof Map)
+				{
+					final Map<?, ?> MAP = (Map<?, ?>)ORIGINAL;
+					
+					final Object[ ] ENTRIES = new Object[MAP.size( ) * 2];
+					
+					int index = 0;
+					
+					for (final Map.Entry<?, ?> ENTRY : MAP.entrySet( ))
+					{
+						ENTRIES[index++] = ENTRY.getKey( );
+						
+						ENTRIES[index++] = ENTRY.getValue( );
+					}
+					
+					return ENTRIES;
+				}
+				else
+				{
+					return ((Collection<?>)ORIGINAL).toArray( );
+				}
+			}
+			else
+			{
+				final Object[ ] VALUES = new Object[PLAN.FIELDS.length];
+				
+				for (int index = 0; index < VALUES.length; index++)
+				{
+					final FieldAccessor FIELD = PLAN.FIELDS[index];
+					
+					try
+					{
+						VALUES[index] = FIELD.get(ORIGINAL);
+					}
+					catch (IllegalAccessException e)
+					{ // Fields are made accessible when the plan is built.
+						throw
+						(
+							new CloningFailedException
+							(
+								e,
+								"Field \"%s\" in class %s couldn't be accessed.",
+								FIELD,
+								PLAN.CLASS.getSimpleName( )
+							)
+						);
+					}
+				}
+				
+				return VALUES;
+			}
+		}
+		
+		/**
+		 * @return The object {@code this} snapshot was taken of.
+		 */
+		public T getRoot( )
+		{
+			return ROOT;
+		}
+		
+		/**
+		 * Restores every object in {@code this} snapshot to the state it was
+		 * in when the snapshot was taken.
+		 * 
+		 * Collections are rebuilt after everything else has been restored, so
+		 * that any keys they hash or compare are already back to their
+		 * recorded state. A snapshot can be restored any number of times.
+		 * 
+		 * @return The object {@code this} snapshot was taken of.
+		 * 
+		 * @throws CloningFailedException If a field couldn't be written.
+		 */
+		public T restore( )
+		{
+			for (int index = 0; index < OBJECTS.length; index++)
+			{
+				final Object ORIGINAL = OBJECTS[index];
+				
+				final Object RECORDED = CONTENTS[index];
+				
+				if (ORIGINAL.getClass( ).isArray( ))
+				{
+					arraycopy(RECORDED, 0, ORIGINAL, 0, getLength(RECORDED));
+				}
+				else
+				{
+					restoreFields(ORIGINAL, (Object[ ])RECORDED);
+				}
+			}
+			
+			for (int index = 0; index < COLLECTIONS.length; index++)
+			{
+				restoreCollection(COLLECTIONS[index], ELEMENTS[index]);
+			}
+			
+			return ROOT;
+		}
+		
+		/**
+		 * Writes the recorded values of every field back into a given object.
+		 * 
+		 * @param ORIGINAL The object to restore.
+		 * @param VALUES The recorded values of its fields.
+		 * 
+		 * @throws CloningFailedException If a field couldn't be written.
+		 */
+		private void restoreFields(final Object ORIGINAL, final Object[ ] VALUES)
+		{
+			final ClonePlan<?> PLAN = REGISTRY.getPlan(ORIGINAL.getClass( ));
+			
+			for (int index = 0; index < VALUES.length; index++)
+			{
+				final FieldAccessor FIELD = PLAN.FIELDS[index];
+				
+				try
+				{
+					FIELD.set(ORIGINAL, VALUES[index]);
+				}
+				catch (IllegalAccessException e)
+				{ // Fields are made accessible when the plan is built.
+					throw
+					(
+						new CloningFailedException
+						(
+							e,
+							"Field \"%s\" in class %s couldn't be accessed.",
+							FIELD,
+							PLAN.CLASS.getSimpleName( )
+						)
+					);
+				}
+			}
+		}
+		
+		/**
+		 * Rebuilds a given core collection from its recorded contents.
+		 * 
+		 * @param ORIGINAL The collection to restore.
+		 * @param ELEMENTS Its recorded elements, or keys and values, alternating.
+		 */
+		private void restoreCollection(final Object ORIGINAL, final Object[ ] ELEMENTS)
+		{
+			if (ORIGINAL instanceof Map)
+			{
+				@SuppressWarnings("unchecked")
+				final Map<Object, Object> MAP = (Map<Object, Object>)ORIGINAL;
+				
+				MAP.clear( );
+				
+				for (int index = 0; index < ELEMENTS.length; index += 2)
+				{
+					MAP.put(ELEMENTS[index], ELEMENTS[index + 1]);
+				}
+			}
+			else
+			{
+				@SuppressWarnings("unchecked")
+				final Collection<Object> COLLECTION = (Collection<Object>)ORIGINAL;
+				
+				COLLECTION.clear( );
+				
+				for (final Object ELEMENT : ELEMENTS)
+				{
+					COLLECTION.add(ELEMENT);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Pending clones with at least this many array elements left are split in
+	 * half before being finished, if other threads are idle.
+	 */
+	private static final int SPLIT_THRESHOLD = 1 << 12;
+	
+	/**
+	 * Work is forked to other threads until roughly this many tasks are
+	 * queued, beyond what idle threads are already taking.
+	 * 
+	 * @see java.util.concurrent.ForkJoinTask#getSurplusQueuedTaskCount()
+	 */
+	private static final int SURPLUS_THRESHOLD = 3;
+	
+	/**
+	 * A traversal that's shared between many fork/join tasks.
+	 * 
+	 * Every task gets its own traversal, with its own pending clones, but all
+	 * of the traversals for a single call to {@link
+	 * #toCloneInParallel(Object, ForkJoinPool)} share the same concurrent map
+	 * of clones. An original is only ever associated with the first clone put
+	 * in that map, so it's still cloned exactly once, even if several threads
+	 * reach it at the same time. The others discard the clones they allocated
+	 * and use the one that won instead.
+	 */
+	private final class ParallelTraversal extends Traversal
+	{
+		/**
+		 * Original objects that have already been cloned, by any thread,
+		 * mapped to their clones.
+		 */
+		private final ConcurrentMap<IdentityKey, Object> CLONES;
+		
+		/**
+		 * Clones that were allocated by {@code this} traversal, but whose
+		 * contents haven't been cloned yet.
+		 */
+		final ArrayDeque<Pending<?>> PENDING = new ArrayDeque<Pending<?>>( );
+		
+		ParallelTraversal(final Registry REGISTRY, final ConcurrentMap<IdentityKey, Object> CLONES)
+		{
+			super(REGISTRY);
+			
+			this.CLONES = CLONES;
+		}
+		
+		@Override
+		Object getClone(final Object ORIGINAL)
+		{
+			return CLONES.get(new IdentityKey(ORIGINAL));
+		}
+		
+		@Override
+		Object putClone(final Object ORIGINAL, final Object CLONE)
+		{
+			return CLONES.putIfAbsent(new IdentityKey(ORIGINAL), CLONE);
+		}
+		
+		@Override
+		void schedule(final Pending<?> PENDING)
+		{
+			this.PENDING.push(PENDING);
+		}
+	}
+	
+	/**
+	 * Finishes the pending clones of a parallel traversal.
+	 * 
+	 * Whenever other threads in the pool are idle, the oldest pending clone is
+	 * forked off to a new task, since it's the one closest to the root, and
+	 * likely to lead to the most work. Large arrays are split in half the same
+	 * way, so that their elements are cloned by several threads at once.
+	 */
+	@SuppressWarnings("serial")
+	private final class CloneTask extends RecursiveAction
+	{
+		private final ParallelTraversal TRAVERSAL;
+		
+		/**
+		 * Continues a given traversal, finishing whatever is pending in it.
+		 * 
+		 * @param TRAVERSAL The traversal to continue.
+		 */
+		CloneTask(final ParallelTraversal TRAVERSAL)
+		{
+			this.TRAVERSAL = TRAVERSAL;
+		}
+		
+		/**
+		 * Forks a given pending clone off to a new task, with a new traversal
+		 * sharing the same clones as {@code this} one.
+		 */
+		private CloneTask fork(final Pending<?> PENDING)
+		{
+			final ParallelTraversal FORKED =
+			(
+				new ParallelTraversal(TRAVERSAL.REGISTRY, TRAVERSAL.CLONES)
+			);
+			
+			FORKED.schedule(PENDING);
+			
+			final CloneTask TASK = new CloneTask(FORKED);
+			
+			TASK.fork( );
+			
+			return TASK;
+		}
+		
+		@Override
+		protected void compute( )
+		{
+			final ArrayDeque<Pending<?>> PENDING = TRAVERSAL.PENDING;
+			
+			final ArrayDeque<CloneTask> FORKED = new ArrayDeque<CloneTask>( );
+			
+			while (PENDING.isEmpty( ) == false)
+			{
+				while (PENDING.size( ) > 1 && getSurplusQueuedTaskCount( ) < SURPLUS_THRESHOLD)
+				{ // Oldest first, the end of the deque is the bottom of the stack.
+					FORKED.push(fork(PENDING.pollLast( )));
+				}
+				
+				final Pending<?> NEXT = PENDING.pop( );
+				
+				if (NEXT.size( ) >= SPLIT_THRESHOLD && getSurplusQueuedTaskCount( ) < SURPLUS_THRESHOLD)
+				{ // Fork the upper half, keep the lower half.
+					final int MIDDLE = (NEXT.FROM + NEXT.TO) >>> 1;
+					
+					FORKED.push(fork(NEXT.slice(MIDDLE, NEXT.TO)));
+					
+					PENDING.push(NEXT.slice(NEXT.FROM, MIDDLE));
+				}
+				else
+				{
+					TRAVERSAL.finish(NEXT);
+				}
+			}
+			
+			while (FORKED.isEmpty( ) == false)
+			{
+				FORKED.pop( ).join( );
+			}
+		}
+	}
+	
+	/**
+	 * Clones each element of another spliterator as it's traversed.
+	 * 
+	 * Consecutive elements are cloned in windows of a fixed size. Elements in
+	 * the same window share one traversal, so any object shared by several of
+	 * them is only cloned once, but nothing is remembered from one window to
+	 * the next, so memory use doesn't grow with the number of elements. Each
+	 * split gets windows of its own.
+	 * 
+	 * @param <T> The type of the elements.
+	 */
+	private final class CloningSpliterator<T> implements Spliterator<T>
+	{
+		/**
+		 * The original elements.
+		 */
+		private final Spliterator<T> ORIGINALS;
+		
+		/**
+		 * The number of consecutive elements cloned in the same traversal.
+		 */
+		private final int WINDOW;
+		
+		/**
+		 * The traversal for the current window, or {@code null} before the
+		 * first element.
+		 */
+		private SerialTraversal traversal = null;
+		
+		/**
+		 * The number of elements left in the current window.
+		 */
+		private int remaining = 0;
+		
+		CloningSpliterator(final Spliterator<T> ORIGINALS, final int WINDOW)
+		{
+			this.ORIGINALS = ORIGINALS;
+			
+			this.WINDOW = WINDOW;
+		}
+		
+		@Override
+		public boolean tryAdvance(final Consumer<? super T> ACTION)
+		{
+			return
+			(
+				ORIGINALS.tryAdvance
+				(
+					new Consumer<T>( )
+					{
+						@Override
+						public void accept(final T ORIGINAL)
+						{
+							if (remaining == 0)
+							{ // Start a new window, forget the last one.
+								traversal = new SerialTraversal(registry);
+								
+								remaining = WINDOW;
+							}
+							
+							remaining--;
+							
+							ACTION.accept(traversal.run(ORIGINAL));
+						}
+					}
+				)
+			);
+		}
+		
+		@Override
+		public Spliterator<T> trySplit( )
+		{
+			final Spliterator<T> SPLIT = ORIGINALS.trySplit( );
+			
+			if (SPLIT == null)
+			{
+				return null;
+			}
+			else
+			{
+				return new CloningSpliterator<T>(SPLIT, WINDOW);
+			}
+		}
+		
+		@Override
+		public long estimateSize( )
+		{
+			return ORIGINALS.estimateSize( );
+		}
+		
+		@Override
+		public int characteristics( )
+		{
+			/*
+			 * Clones aren't necessarily sorted or distinct the same way their
+			 * originals are.
+			 */
+			return ORIGINALS.characteristics( ) & (ORDERED | SIZED | SUBSIZED | NONNULL);
+		}
+	}
+	
+	/**
+	 * Clones a given object.
+	 * 
+	 * The resulting clone is a deep copy of the given object. They will be
+	 * equal to each other, and changes to one will not affect the other.
+	 * 
+	 * This method is safe to call from multiple threads at the same time, even
+	 * while immutable types are being registered or unregistered.
+	 * 
+	 * @param <T> The type of the object to clone.
+	 * @param ORIGINAL The object to clone.
+	 * 
+	 * @return A deep copy of {@code ORIGINAL}.
+	 * 
+	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+	 */
+	public <T> T toClone(final T ORIGINAL)
+	{
+		return toClone(ORIGINAL, 0);
+	}
+	
+	/**
+	 * Clones a given object, expecting roughly a given number of objects to
+	 * be cloned along with it.
+	 * 
+	 * The table that keeps track of the clones starts out with room for that
+	 * many objects, so it never has to grow while cloning a graph of about
+	 * that size. Each thread reuses the same table from one call to the
+	 * next, so without a hint, it has room for as many objects as the last
+	 * call on the same thread cloned.
+	 * 
+	 * @param <T> The type of the object to clone.
+	 * @param ORIGINAL The object to clone.
+	 * @param SIZE Roughly how many objects are reachable from {@code ORIGINAL}, or {@code 0} if unknown.
+	 * 
+	 * @return A deep copy of {@code ORIGINAL}.
+	 * 
+	 * @throws IllegalArgumentException If {@code SIZE} is negative.
+	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+	 * 
+	 * @see #toClone(Object)
+	 */
+	public <T> T toClone(final T ORIGINAL, final int SIZE)
+	{
+		if (SIZE < 0)
+		{
+			throw new IllegalArgumentException("Size can't be negative.");
+		}
+		
+		final IdentityTable CLONES = IdentityTable.acquire(SIZE);
+		
+		try
+		{
+			return new SerialTraversal(registry, CLONES).run(ORIGINAL);
+		}
+		finally
+		{
+			IdentityTable.release(CLONES);
+		}
+	}
+	
+	/**
+	 * Clones each of the given objects, all at once.
+	 * 
+	 * Each clone is a deep copy of the object at the same position, just like
+	 * the result of {@link #toClone(Object)}, but any object that's shared by
+	 * several of the given objects is only cloned once, and the clones share
+	 * its clone the same way. Cloning many related objects at once also only
+	 * pays for setting up a single traversal.
+	 * 
+	 * @param <T> The type of the objects to clone.
+	 * @param ORIGINALS The objects to clone.
+	 * 
+	 * @return A new list of the clones, in the same order as {@code ORIGINALS}.
+	 * 
+	 * @throws CloningFailedException If cloning any of {@code ORIGINALS} fails for any reason.
+	 */
+	public <T> List<T> toCloneAll(final Collection<? extends T> ORIGINALS)
+	{
+		final Object[ ] CLONES = new Object[ORIGINALS.size( )];
+		
+		final IdentityTable TABLE = IdentityTable.acquire(CLONES.length);
+		
+		try
+		{
+			new SerialTraversal(registry, TABLE).runAll(ORIGINALS.toArray( ), CLONES);
+		}
+		finally
+		{
+			IdentityTable.release(TABLE);
+		}
+		
+		/*
+		 * Each clone has the same class as its original, which is a T.
+		 */
+		@SuppressWarnings("unchecked")
+		final List<T> LIST = (List<T>)asList(CLONES);
+		
+		return new ArrayList<T>(LIST);
+	}
+	
+	/**
+	 * Clones each of the given objects, all at once.
+	 * 
+	 * The given array itself isn't cloned, only its elements are. Otherwise,
+	 * this is the same as {@link #toCloneAll(Collection)}.
+	 * 
+	 * @param <T> The component type of the array of objects to clone.
+	 * @param ORIGINALS The objects to clone.
+	 * 
+	 * @return A new array of the same type as {@code ORIGINALS}, holding the clones in the same order.
+	 * 
+	 * @throws CloningFailedException If cloning any of {@code ORIGINALS} fails for any reason.
+	 */
+	public <T> T[ ] toCloneAll(final T[ ] ORIGINALS)
+	{
+		/*
+		 * The new array has the same type as ORIGINALS.
+		 */
+		@SuppressWarnings("unchecked")
+		final T[ ] CLONES =
+		(
+			(T[ ])newInstance
+			(
+				ORIGINALS.getClass( ).getComponentType( ), ORIGINALS.length
+			)
+		);
+		
+		final IdentityTable TABLE = IdentityTable.acquire(CLONES.length);
+		
+		try
+		{
+			new SerialTraversal(registry, TABLE).runAll(ORIGINALS, CLONES);
+		}
+		finally
+		{
+			IdentityTable.release(TABLE);
+		}
+		
+		return CLONES;
+	}
+	
+	/**
+	 * Copies a given object into another object of the same class, in place.
+	 * 
+	 * Both object graphs are walked together, and the fields, array elements
+	 * and collection contents of {@code TARGET} are overwritten with deep
+	 * copies of the ones in {@code SOURCE}. Any object already referenced from
+	 * the same place in {@code TARGET} is reused as the copy, if it has the
+	 * same class, and for arrays, the same length. New objects are only
+	 * allocated where the two graphs differ in shape, so refreshing the same
+	 * target from a source that keeps the same shape allocates almost nothing
+	 * besides the traversal's own bookkeeping.
+	 * 
+	 * The two graphs must not share any mutable objects, since anything
+	 * reachable from {@code TARGET} may be overwritten.
+	 * 
+	 * @param <T> The type of the objects.
+	 * @param SOURCE The object to copy.
+	 * @param TARGET The object to copy into.
+	 * 
+	 * @throws IllegalArgumentException If either object is {@code null}, if they have different classes, if they're shallow-copyable, if they're arrays of different lengths, or if {@code TARGET} is a sorted map with a different comparator.
+	 * @throws CloningFailedException If copying {@code SOURCE} fails for any other reason, possibly leaving {@code TARGET} partly overwritten.
+	 */
+	public <T> void copyInto(final T SOURCE, final T TARGET)
+	{
+		if (SOURCE == null || TARGET == null)
+		{
+			throw new IllegalArgumentException("Source and target can't be null.");
+		}
+		else if (SOURCE.getClass( ) != TARGET.getClass( ))
+		{
+			throw new IllegalArgumentException("Source and target must have the same class.");
+		}
+		else if (SOURCE == TARGET)
+		{
+			return;
+		}
+		
+		final IdentityTable CLONES = IdentityTable.acquire(0);
+		
+		try
+		{
+			final CopyTraversal TRAVERSAL = new CopyTraversal(registry, CLONES);
+			
+			if (TRAVERSAL.isShallow(SOURCE))
+			{
+				throw new IllegalArgumentException("Can't copy into a shallow-copyable object.");
+			}
+			else if (SOURCE.getClass( ).isArray( ) && getLength(SOURCE) != getLength(TARGET))
+			{
+				throw new IllegalArgumentException("Arrays must have the same length.");
+			}
+			else if (TRAVERSAL.run(SOURCE, TARGET) != TARGET)
+			{ // Nothing was written to TARGET.
+				throw new IllegalArgumentException("Target can't be overwritten.");
+			}
+		}
+		finally
+		{
+			IdentityTable.release(CLONES);
+		}
+	}
+	
+	/**
+	 * Clones each element of a given spliterator lazily, as it's traversed.
+	 * 
+	 * Every {@code WINDOW} consecutive elements are cloned together, like
+	 * {@link #toCloneAll(Collection)} does, so objects shared between them are
+	 * only cloned once. Objects shared between elements in different windows
+	 * are cloned once per window. Only one window's worth of clones is ever
+	 * remembered at a time, per split.
+	 * 
+	 * @param <T> The type of the elements.
+	 * @param ORIGINALS The elements to clone.
+	 * @param WINDOW How many consecutive elements to clone together, {@code 1} to clone each one independently.
+	 * 
+	 * @return A spliterator over the clones of the elements of {@code ORIGINALS}, in the same order.
+	 * 
+	 * @throws IllegalArgumentException If {@code WINDOW} isn't positive.
+	 */
+	public <T> Spliterator<T> toCloneSpliterator(final Spliterator<T> ORIGINALS, final int WINDOW)
+	{
+		if (WINDOW < 1)
+		{
+			throw new IllegalArgumentException("Window must be positive.");
+		}
+		
+		return new CloningSpliterator<T>(ORIGINALS, WINDOW);
+	}
+	
+	/**
+	 * Clones each element of a given stream lazily, in windows of a given
+	 * size.
+	 * 
+	 * The resulting stream is parallel if {@code ORIGINALS} is, and closing
+	 * it closes {@code ORIGINALS}.
+	 * 
+	 * @param <T> The type of the elements.
+	 * @param ORIGINALS The elements to clone.
+	 * @param WINDOW How many consecutive elements to clone together, {@code 1} to clone each one independently.
+	 * 
+	 * @return A stream of the clones of the elements of {@code ORIGINALS}.
+	 * 
+	 * @throws IllegalArgumentException If {@code WINDOW} isn't positive.
+	 * 
+	 * @see #toCloneSpliterator(Spliterator, int)
+	 */
+	public <T> Stream<T> toCloneStream(final Stream<T> ORIGINALS, final int WINDOW)
+	{
+		final Spliterator<T> CLONES =
+		(
+			toCloneSpliterator(ORIGINALS.spliterator( ), WINDOW)
+		);
+		
+		return
+		(
+			stream(CLONES, ORIGINALS.isParallel( )).onClose
+			(
+				new Runnable( )
+				{
+					@Override
+					public void run( )
+					{
+						ORIGINALS.close( );
+					}
+				}
+			)
+		);
+	}
+	
+	/**
+	 * Clones each element of a given stream lazily and independently.
+	 * 
+	 * @param <T> The type of the elements.
+	 * @param ORIGINALS The elements to clone.
+	 * 
+	 * @return A stream of the clones of the elements of {@code ORIGINALS}.
+	 * 
+	 * @see #toCloneStream(Stream, int)
+	 */
+	public <T> Stream<T> toCloneStream(final Stream<T> ORIGINALS)
+	{
+		return toCloneStream(ORIGINALS, 1);
+	}
+	
+	/**
+	 * Clones a given object lazily.
+	 * 
+	 * The given object is cloned right away, but the value of any field
+	 * declared as a public interface type is replaced with a proxy for that
+	 * interface, which only clones the value when one of its methods is first
+	 * invoked, and delegates to that clone from then on. Those clones are
+	 * lazy in the same way, so parts of the graph that are never accessed are
+	 * never cloned. Other than {@code equals(Object)} on the proxy itself,
+	 * which is always {@code true}, methods of {@code Object} are forwarded
+	 * too.
+	 * 
+	 * Objects are shared the same way as in {@link #toClone(Object)}. Once a
+	 * value behind a proxy is cloned, either because the proxy was invoked,
+	 * or because the value was also reached through a field of a concrete
+	 * type, or as an element of an array or collection, every field that
+	 * held the proxy holds the clone instead. Only references to a proxy
+	 * that were read out of a field before then keep pointing to the proxy,
+	 * which still delegates to the same clone.
+	 * 
+	 * Values are cloned when they're first accessed, not when this method is
+	 * called, so the original graph must not be changed in the meantime. As
+	 * long as any proxy is still reachable, so is the whole original graph,
+	 * along with every clone made so far, even parts of either that would
+	 * otherwise be garbage. Proxies only implement the declared interface of the field
+	 * they're in, so casting them to the class of the original value fails,
+	 * and they lose any marker interfaces it implements. For example, a proxy
+	 * in a field declared as {@code List} isn't an {@code ArrayList}, or
+	 * {@link java.util.RandomAccess}, even if the original value is, so code
+	 * that checks for either takes its slower path.
+	 * 
+	 * @param <T> The type of the object to clone.
+	 * @param ORIGINAL The object to clone.
+	 * 
+	 * @return A lazy deep copy of {@code ORIGINAL}.
+	 * 
+	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason, or later, if cloning any value behind a proxy fails.
+	 */
+	public <T> T toLazyClone(final T ORIGINAL)
+	{
+		return new LazyTraversal(registry).run(ORIGINAL);
+	}
+	
+	/**
+	 * Clones a given object lazily, including the object itself.
+	 * 
+	 * This is the same as {@link #toLazyClone(Object)}, except that the
+	 * result is a proxy for the given interface too, so even the given object
+	 * isn't cloned until it's first accessed. If {@code INTERFACE} isn't
+	 * public, a proxy couldn't forward to it, so the given object is cloned
+	 * right away instead.
+	 * 
+	 * @param <T> The interface type of the object to clone.
+	 * @param ORIGINAL The object to clone.
+	 * @param INTERFACE The interface for the resulting proxy to implement.
+	 * 
+	 * @return A proxy implementing {@code INTERFACE}, which delegates to a lazy deep copy of {@code ORIGINAL}.
+	 * 
+	 * @throws IllegalArgumentException If {@code INTERFACE} isn't an interface.
+	 */
+	public <T> T toLazyClone(final T ORIGINAL, final Class<T> INTERFACE)
+	{
+		if (INTERFACE.isInterface( ) == false)
+		{
+			throw new IllegalArgumentException("Not an interface.");
+		}
+		else if (ORIGINAL == null)
+		{
+			return null;
+		}
+		
+		final LazyTraversal TRAVERSAL = new LazyTraversal(registry);
+		
+		if (TRAVERSAL.isShallow(ORIGINAL))
+		{
+			return ORIGINAL;
+		}
+		else if (INVOCABLE.get(INTERFACE) == FALSE)
+		{
+			return TRAVERSAL.run(ORIGINAL);
+		}
+		else
+		{
+			return TRAVERSAL.toProxy(INTERFACE, ORIGINAL);
+		}
+	}
+	
+	/**
+	 * Creates a new, empty series of incremental snapshots, taken with {@code
+	 * this} cloner.
+	 * 
+	 * @return A new series of snapshots, with no previous snapshot yet.
+	 * 
+	 * @see Incremental
+	 */
+	public Incremental newIncremental( )
+	{
+		return new Incremental( );
+	}
+	
+	/**
+	 * Takes a snapshot of a given object graph, which it can later be
+	 * restored to in place.
+	 * 
+	 * @param <T> The type of the object to take a snapshot of.
+	 * @param ORIGINAL The object to take a snapshot of.
+	 * 
+	 * @return A snapshot of every object reachable from {@code ORIGINAL}.
+	 * 
+	 * @throws CloningFailedException If a field couldn't be accessed.
+	 * 
+	 * @see Snapshot
+	 */
+	public <T> Snapshot<T> toSnapshot(final T ORIGINAL)
+	{
+		return new Snapshot<T>(ORIGINAL);
+	}
+	
+	/**
+	 * Clones a given object, using every thread in the common fork/join pool.
+	 * 
+	 * @param <T> The type of the object to clone.
+	 * @param ORIGINAL The object to clone.
+	 * 
+	 * @return A deep copy of {@code ORIGINAL}.
+	 * 
+	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+	 * 
+	 * @see #toCloneInParallel(Object, ForkJoinPool)
+	 */
+	public <T> T toCloneInParallel(final T ORIGINAL)
+	{
+		return toCloneInParallel(ORIGINAL, ForkJoinPool.commonPool( ));
+	}
+	
+	/**
+	 * Clones a given object, using every thread in a given fork/join pool.
+	 * 
+	 * The result is the same as {@link #toClone(Object)}, including any
+	 * objects shared by or referenced more than once in the original, but
+	 * wide arrays and independent parts of the object graph are cloned by
+	 * different threads at the same time. That only pays off for large object
+	 * graphs, since the clones have to be tracked in a concurrent map, and
+	 * classes whose constructors have side effects might be instantiated more
+	 * often than necessary, if several threads race to clone the same object.
+	 * 
+	 * @param <T> The type of the object to clone.
+	 * @param ORIGINAL The object to clone.
+	 * @param POOL The pool to clone in.
+	 * 
+	 * @return A deep copy of {@code ORIGINAL}.
+	 * 
+	 * @throws CloningFailedException If cloning {@code ORIGINAL} fails for any reason.
+	 */
+	public <T> T toCloneInParallel(final T ORIGINAL, final ForkJoinPool POOL)
+	{
+		final ParallelTraversal TRAVERSAL =
+		(
+			new ParallelTraversal
+			(
+				registry, new ConcurrentHashMap<IdentityKey, Object>( )
+			)
+		);
+		
+		final long START = TRAVERSAL.start( );
+		
+		final T CLONE = TRAVERSAL.toClone(ORIGINAL, null);
+		
+		POOL.invoke(new CloneTask(TRAVERSAL));
+		
+		TRAVERSAL.finished(ORIGINAL, CLONE, START);
+		
 		return CLONE;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,375 @@
+package org.gdejohn.similitude;
+
+import static java.lang.invoke.MethodHandles.filterArguments;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+
+/**
+ * Reads and writes a single instance field through cached method handles.
+ * 
+ * Accessors are created once per field, the first time any instance field of
+ * the declaring class is needed, and shared from then on. Creating one makes
+ * the field accessible and looks up its method handles, so access checks are
+ * only ever done once. If the method handles can't be looked up, the accessor
+ * falls back to reflection.
+ */
+final class FieldAccessor
+{
+	static final Logger LOGGER = getLogger(FieldAccessor.class);
+	
+	/**
+	 * The type of {@link #COPIER}, taking the instance to copy to, followed by
+	 * the instance to copy from.
+	 */
+	static final MethodType COPIER_TYPE =
+	(
+		methodType(void.class, Object.class, Object.class)
+	);
+	
+	private static final MethodType GETTER_TYPE =
+	(
+		methodType(Object.class, Object.class)
+	);
+	
+	private static final MethodType SETTER_TYPE =
+	(
+		methodType(void.class, Object.class, Object.class)
+	);
+	
+	private static final Lookup LOOKUP = lookup( );
+	
+	private static final FieldAccessor[ ] NO_ACCESSORS = new FieldAccessor[0];
+	
+	/**
+	 * Accessors for the instance fields declared by a class.
+	 */
+	private static final ClassValue<FieldAccessor[ ]> DECLARED =
+	(
+		new ClassValue<FieldAccessor[ ]>( )
+		{
+			@Override
+			protected FieldAccessor[ ] computeValue(final Class<?> TYPE)
+			{
+				final List<FieldAccessor> ACCESSORS =
+				(
+					new ArrayList<FieldAccessor>( )
+				);
+				
+				for (final Field FIELD : TYPE.getDeclaredFields( ))
+				{
+					if (isStatic(FIELD.getModifiers( )))
+					{ // If static, ignore and skip to the next one.
+						continue;
+					}
+					else
+					{
+						ACCESSORS.add(new FieldAccessor(FIELD));
+					}
+				}
+				
+				return ACCESSORS.toArray(NO_ACCESSORS);
+			}
+		}
+	);
+	
+	/**
+	 * Accessors for the instance fields declared or inherited by a class.
+	 */
+	private static final ClassValue<FieldAccessor[ ]> ALL =
+	(
+		new ClassValue<FieldAccessor[ ]>( )
+		{
+			@Override
+			protected FieldAccessor[ ] computeValue(final Class<?> TYPE)
+			{
+				final FieldAccessor[ ] DECLARED_ACCESSORS = DECLARED.get(TYPE);
+				
+				final Class<?> SUPER_CLASS = TYPE.getSuperclass( );
+				
+				if (SUPER_CLASS == null)
+				{
+					return DECLARED_ACCESSORS;
+				}
+				
+				final FieldAccessor[ ] INHERITED = ALL.get(SUPER_CLASS);
+				
+				if (INHERITED.length == 0)
+				{
+					return DECLARED_ACCESSORS;
+				}
+				else
+				{
+					final FieldAccessor[ ] ACCESSORS =
+					(
+						new FieldAccessor[DECLARED_ACCESSORS.length + INHERITED.length]
+					);
+					
+					System.arraycopy
+					(
+						DECLARED_ACCESSORS,
+						0,
+						ACCESSORS,
+						0,
+						DECLARED_ACCESSORS.length
+					);
+					
+					System.arraycopy
+					(
+						INHERITED,
+						0,
+						ACCESSORS,
+						DECLARED_ACCESSORS.length,
+						INHERITED.length
+					);
+					
+					return ACCESSORS;
+				}
+			}
+		}
+	);
+	
+	/**
+	 * Gets accessors for all instance fields declared or inherited by a given
+	 * class.
+	 * 
+	 * Fields declared by the class itself come first, followed by those of
+	 * its superclass, and so on, the same order as {@link
+	 * TypeToken#getAllInstanceFields()}. The returned array is shared, and
+	 * must not be modified.
+	 * 
+	 * @param CLASS The class to get field accessors for.
+	 * 
+	 * @return Accessors for every instance field of {@code CLASS}.
+	 */
+	static FieldAccessor[ ] forClass(final Class<?> CLASS)
+	{
+		return ALL.get(CLASS);
+	}
+	
+	final Field FIELD;
+	
+	/**
+	 * {@code false} if {@link #FIELD} couldn't be made accessible, in which
+	 * case it can't be read or written at all.
+	 */
+	final boolean ACCESSIBLE;
+	
+	/**
+	 * Why {@link #FIELD} couldn't be made accessible, or {@code null} if it
+	 * could.
+	 */
+	final RuntimeException DENIAL;
+	
+	/**
+	 * Copies {@link #FIELD} from one instance to another, without boxing, or
+	 * {@code null} if the method handles couldn't be looked up.
+	 * 
+	 * @see #COPIER_TYPE
+	 */
+	final MethodHandle COPIER;
+	
+	/**
+	 * Reads {@link #FIELD}, boxing it if primitive, or {@code null}.
+	 */
+	private final MethodHandle GETTER;
+	
+	/**
+	 * Writes {@link #FIELD}, unboxing it if primitive, or {@code null}.
+	 */
+	private final MethodHandle SETTER;
+	
+	private FieldAccessor(final Field FIELD)
+	{
+		this.FIELD = FIELD;
+		
+		RuntimeException denial;
+		
+		try
+		{
+			FIELD.setAccessible(true);
+			
+			denial = null;
+		}
+		catch (final RuntimeException e)
+		{ // SecurityException, or a module that isn't open to this one.
+			LOGGER.debug("Couldn't set field accessible: {}", FIELD, e);
+			
+			denial = e;
+		}
+		
+		final boolean ACCESSIBLE = (denial == null);
+		
+		MethodHandle getter = null;
+		
+		MethodHandle setter = null;
+		
+		if (ACCESSIBLE)
+		{
+			try
+			{
+				getter = LOOKUP.unreflectGetter(FIELD);
+				
+				setter = LOOKUP.unreflectSetter(FIELD);
+			}
+			catch (final IllegalAccessException e)
+			{
+				LOGGER.debug("Using reflection for field: {}", FIELD, e);
+				
+				getter = null;
+				
+				setter = null;
+			}
+		}
+		
+		this.ACCESSIBLE = ACCESSIBLE;
+		
+		this.DENIAL = denial;
+		
+		if (getter == null || setter == null)
+		{
+			this.COPIER = null;
+			
+			this.GETTER = null;
+			
+			this.SETTER = null;
+		}
+		else
+		{
+			/*
+			 * (target, value) -> void, with the value filtered through the
+			 * getter, becomes (target, source) -> void.
+			 */
+			this.COPIER =
+			(
+				filterArguments(setter, 1, getter).asType(COPIER_TYPE)
+			);
+			
+			this.GETTER = getter.asType(GETTER_TYPE);
+			
+			this.SETTER = setter.asType(SETTER_TYPE);
+		}
+	}
+	
+	/**
+	 * Rethrows anything thrown by a method handle.
+	 * 
+	 * Field access doesn't throw checked exceptions, so anything that isn't
+	 * unchecked is wrapped.
+	 */
+	private static RuntimeException rethrow(final Throwable THROWN)
+	{
+		if (THROWN instanceof RuntimeException)
+		{
+			return (RuntimeException)THROWN;
+		}
+		else if (THROWN instanceof Error)
+		{
+			throw (Error)THROWN;
+		}
+		else
+		{
+			return new RuntimeException(THROWN);
+		}
+	}
+	
+	/**
+	 * Reads {@link #FIELD} from a given instance.
+	 * 
+	 * @param INSTANCE The instance to read from.
+	 * 
+	 * @return The value of {@link #FIELD}, boxed if primitive.
+	 * 
+	 * @throws IllegalAccessException If reflection is used, and {@link #FIELD} isn't accessible.
+	 */
+	Object get(final Object INSTANCE) throws IllegalAccessException
+	{
+		if (GETTER == null)
+		{
+			return FIELD.get(INSTANCE);
+		}
+		else
+		{
+			try
+			{
+				return GETTER.invokeExact(INSTANCE);
+			}
+			catch (final Throwable e)
+			{
+				throw rethrow(e);
+			}
+		}
+	}
+	
+	/**
+	 * Writes {@link #FIELD} in a given instance.
+	 * 
+	 * @param INSTANCE The instance to write to.
+	 * @param VALUE The value to write, boxed if {@link #FIELD} is primitive.
+	 * 
+	 * @throws IllegalAccessException If reflection is used, and {@link #FIELD} isn't accessible.
+	 */
+	void set(final Object INSTANCE, final Object VALUE) throws IllegalAccessException
+	{
+		if (SETTER == null)
+		{
+			FIELD.set(INSTANCE, VALUE);
+		}
+		else
+		{
+			try
+			{
+				SETTER.invokeExact(INSTANCE, VALUE);
+			}
+			catch (final Throwable e)
+			{
+				throw rethrow(e);
+			}
+		}
+	}
+	
+	/**
+	 * Copies {@link #FIELD} from one instance to another.
+	 * 
+	 * Unless reflection is used, primitive values are copied without boxing.
+	 * 
+	 * @param TARGET The instance to write to.
+	 * @param SOURCE The instance to read from.
+	 * 
+	 * @throws IllegalAccessException If reflection is used, and {@link #FIELD} isn't accessible.
+	 */
+	void copy(final Object TARGET, final Object SOURCE) throws IllegalAccessException
+	{
+		if (COPIER == null)
+		{
+			FIELD.set(TARGET, FIELD.get(SOURCE));
+		}
+		else
+		{
+			try
+			{
+				COPIER.invokeExact(TARGET, SOURCE);
+			}
+			catch (final Throwable e)
+			{
+				throw rethrow(e);
+			}
+		}
+	}
+	
+	@Override
+	public String toString( )
+	{
+		return FIELD.toString( );
+	}
+}
\ No newline at end of file
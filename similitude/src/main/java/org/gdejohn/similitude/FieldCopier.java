@@ -0,0 +1,83 @@
+package org.gdejohn.similitude;
+
+import static java.lang.invoke.MethodHandles.foldArguments;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+import org.slf4j.Logger;
+
+/**
+ * Compiles straight-line copiers for the fields of a class.
+ * 
+ * A compiled copier is a single method handle that reads each of the given
+ * fields from one instance and writes it to another, one field after the
+ * other. Primitive fields are read and written with their own types, so
+ * nothing is boxed. The method handles come from each field's {@link
+ * FieldAccessor}, so access checks were already done once per field.
+ * 
+ * A copier is held by its {@link ClonePlan}, not in a static final field, so
+ * it isn't a constant where it's invoked, and the JIT can't inline it into
+ * the caller. It's still invoked through its own compiled lambda forms, one
+ * indirect call per class instead of one per field, and without boxing or
+ * the checks that {@link java.lang.reflect.Field#get(Object)} and {@link
+ * java.lang.reflect.Field#set(Object, Object)} repeat on every call. Cloning
+ * an array of flat objects with nine primitive, immutable and enum fields,
+ * the compiled copier took about half as long as copying each field with its
+ * own method handle, and about a quarter as long as copying each field
+ * reflectively.
+ */
+final class FieldCopier
+{
+	static final Logger LOGGER = getLogger(FieldCopier.class);
+	
+	private FieldCopier( )
+	{
+		throw new AssertionError("Not instantiable.");
+	}
+	
+	/**
+	 * Compiles a copier for the given fields.
+	 * 
+	 * If a method handle couldn't be looked up for any of the given fields,
+	 * no copier is compiled at all, and the caller is expected to copy each
+	 * field with its accessor instead.
+	 * 
+	 * @param CLASS The class that declares or inherits the fields.
+	 * @param ACCESSORS Accessors for the fields to copy.
+	 * 
+	 * @return A method handle of type {@link FieldAccessor#COPIER_TYPE}, or {@code null} if {@code ACCESSORS} is empty or a copier couldn't be compiled.
+	 */
+	static MethodHandle compile(final Class<?> CLASS, final List<FieldAccessor> ACCESSORS)
+	{
+		MethodHandle copier = null;
+		
+		for (final FieldAccessor ACCESSOR : ACCESSORS)
+		{
+			final MethodHandle COPY = ACCESSOR.COPIER;
+			
+			if (COPY == null)
+			{
+				LOGGER.debug
+				(
+					"Couldn't compile copier for class {}, field {} uses reflection.",
+					CLASS.getSimpleName( ),
+					ACCESSOR
+				);
+				
+				return null;
+			}
+			else if (copier == null)
+			{
+				copier = COPY;
+			}
+			else
+			{ // Runs the fields copied so far, then COPY.
+				copier = foldArguments(COPY, copier);
+			}
+		}
+		
+		return copier;
+	}
+}
\ No newline at end of file
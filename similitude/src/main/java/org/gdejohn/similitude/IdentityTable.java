@@ -0,0 +1,360 @@
+package org.gdejohn.similitude;
+
+import static java.lang.System.identityHashCode;
+import static java.util.Arrays.fill;
+
+/**
+ * Maps original objects to their clones by identity, for a single traversal.
+ * 
+ * Keys and values are kept side by side in one array, with linear probing,
+ * the same way {@link java.util.IdentityHashMap} does, but without any of
+ * the {@code Map} interface, since a traversal only ever looks up and adds
+ * clones. Keys can't be {@code null}, and nothing is ever removed.
+ * 
+ * Every thread keeps one table around between traversals that run to
+ * completion before returning. A table that's {@linkplain #acquire(int)
+ * acquired} already has the capacity that the last traversal on the same
+ * thread needed, so cloning graphs of a similar size over and over doesn't
+ * grow or allocate anything. When a table is {@linkplain #release(IdentityTable)
+ * released}, it's cleared, unless it's much larger than what the last
+ * traversal needed, in which case it's shrunk instead, so that one huge
+ * graph doesn't make clearing expensive for every small one after it.
+ * Tables with room for more than {@link #RETAINED_CAPACITY} entries aren't
+ * kept at all, so one huge graph doesn't pin a huge table to its thread for
+ * as long as the thread lives, which for an idle pooled thread is forever.
+ */
+final class IdentityTable
+{
+	/**
+	 * The smallest number of entries a table has room for, a power of two.
+	 */
+	private static final int MINIMUM_CAPACITY = 1 << 4;
+	
+	/**
+	 * The largest number of entries a table has room for, a power of two,
+	 * so that the array of keys and values still fits.
+	 */
+	private static final int MAXIMUM_CAPACITY = 1 << 29;
+	
+	/**
+	 * A released table is shrunk if it has room for more than this many
+	 * times the entries its last traversal needed.
+	 */
+	private static final int SHRINK_FACTOR = 8;
+	
+	/**
+	 * The largest number of entries a released table can have room for and
+	 * still be kept for the next traversal, a power of two.
+	 */
+	static final int RETAINED_CAPACITY = 1 << 16;
+	
+	/**
+	 * The table each thread reuses, or {@code null} while it's acquired.
+	 */
+	private static final ThreadLocal<IdentityTable> POOLED =
+	(
+		new ThreadLocal<IdentityTable>( )
+	);
+	
+	/**
+	 * Keys at even indices, each followed by its value.
+	 */
+	private Object[ ] table;
+	
+	/**
+	 * The number of entries.
+	 */
+	private int size = 0;
+	
+	/**
+	 * The table is grown once it holds more than this many entries.
+	 */
+	private int threshold;
+	
+	/**
+	 * Creates a new, empty table.
+	 * 
+	 * @param EXPECTED The number of entries the table should have room for without growing.
+	 */
+	IdentityTable(final int EXPECTED)
+	{
+		allocate(capacityFor(EXPECTED));
+	}
+	
+	IdentityTable( )
+	{
+		this(0);
+	}
+	
+	/**
+	 * Takes the calling thread's table, or a new one if it's already taken.
+	 * 
+	 * @param EXPECTED The number of entries the table should have room for without growing, or {@code 0} for as many as last time.
+	 * 
+	 * @return An empty table, to be {@linkplain #release(IdentityTable) released} once the traversal using it is done.
+	 */
+	static IdentityTable acquire(final int EXPECTED)
+	{
+		final IdentityTable POOLED = IdentityTable.POOLED.get( );
+		
+		if (POOLED == null)
+		{ // Nested traversal, or the first one on this thread.
+			return new IdentityTable(EXPECTED);
+		}
+		
+		IdentityTable.POOLED.set(null);
+		
+		POOLED.ensureCapacity(EXPECTED);
+		
+		return POOLED;
+	}
+	
+	/**
+	 * Empties a given table and gives it back to the calling thread, to be
+	 * reused by the next traversal, unless it has room for more than {@link
+	 * #RETAINED_CAPACITY} entries, in which case it's left for the garbage
+	 * collector.
+	 * 
+	 * @param TABLE A table that was {@linkplain #acquire(int) acquired} on this thread.
+	 */
+	static void release(final IdentityTable TABLE)
+	{
+		if (TABLE.table.length / 2 > RETAINED_CAPACITY)
+		{ // Dropped, rather than cleared and kept.
+			return;
+		}
+		
+		final int CAPACITY = capacityFor(TABLE.size);
+		
+		if (TABLE.table.length / 2 > CAPACITY * SHRINK_FACTOR)
+		{
+			TABLE.allocate(CAPACITY);
+		}
+		else if (TABLE.size > 0)
+		{
+			fill(TABLE.table, null);
+		}
+		
+		TABLE.size = 0;
+		
+		POOLED.set(TABLE);
+	}
+	
+	/**
+	 * Gets the smallest capacity with room for a given number of entries.
+	 * 
+	 * @param EXPECTED The number of entries.
+	 * 
+	 * @return A power of two, at least three halves of {@code EXPECTED}.
+	 */
+	static int capacityFor(final int EXPECTED)
+	{
+		final long NEEDED = (long)EXPECTED + (EXPECTED >> 1);
+		
+		int capacity = MINIMUM_CAPACITY;
+		
+		while (capacity < NEEDED && capacity < MAXIMUM_CAPACITY)
+		{
+			capacity <<= 1;
+		}
+		
+		return capacity;
+	}
+	
+	/**
+	 * Replaces the array of keys and values with a new, empty one.
+	 * 
+	 * @param CAPACITY The number of entries the new array has room for, a power of two.
+	 */
+	private void allocate(final int CAPACITY)
+	{
+		table = new Object[CAPACITY * 2];
+		
+		threshold = (CAPACITY / 3) * 2;
+	}
+	
+	/**
+	 * Gets the index of the slot where probing for a given key starts.
+	 * 
+	 * @param KEY The key.
+	 * @param LENGTH The length of the array of keys and values.
+	 * 
+	 * @return An even index into an array of length {@code LENGTH}.
+	 */
+	private static int indexFor(final Object KEY, final int LENGTH)
+	{
+		final int HASH = identityHashCode(KEY) * 0x9E3779B9;
+		
+		return ((HASH ^ (HASH >>> 16)) << 1) & (LENGTH - 1);
+	}
+	
+	/**
+	 * Gets the value that a given key is mapped to.
+	 * 
+	 * @param KEY The key, not {@code null}.
+	 * 
+	 * @return The value of {@code KEY}, or {@code null} if it isn't mapped.
+	 */
+	Object get(final Object KEY)
+	{
+		final Object[ ] TABLE = table;
+		
+		final int LENGTH = TABLE.length;
+		
+		for (int index = indexFor(KEY, LENGTH); ; index = (index + 2) & (LENGTH - 1))
+		{
+			final Object CANDIDATE = TABLE[index];
+			
+			if (CANDIDATE == KEY)
+			{
+				return TABLE[index + 1];
+			}
+			else if (CANDIDATE == null)
+			{
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * Maps a given key to a given value, replacing any value it was already
+	 * mapped to.
+	 * 
+	 * @param KEY The key, not {@code null}.
+	 * @param VALUE The value.
+	 * 
+	 * @return The value {@code KEY} was mapped to, or {@code null} if it wasn't.
+	 */
+	Object put(final Object KEY, final Object VALUE)
+	{
+		final Object[ ] TABLE = table;
+		
+		final int LENGTH = TABLE.length;
+		
+		for (int index = indexFor(KEY, LENGTH); ; index = (index + 2) & (LENGTH - 1))
+		{
+			final Object CANDIDATE = TABLE[index];
+			
+			if (CANDIDATE == KEY)
+			{
+				final Object PREVIOUS = TABLE[index + 1];
+				
+				TABLE[index + 1] = VALUE;
+				
+				return PREVIOUS;
+			}
+			else if (CANDIDATE == null)
+			{
+				TABLE[index] = KEY;
+				
+				TABLE[index + 1] = VALUE;
+				
+				if (++size > threshold)
+				{
+					grow( );
+				}
+				
+				return null;
+			}
+		}
+	}
+	
+	/**
+	 * @return The number of keys mapped to values.
+	 */
+	int size( )
+	{
+		return size;
+	}
+	
+	/**
+	 * @return {@code true} if no keys are mapped to values, else {@code false}.
+	 */
+	boolean isEmpty( )
+	{
+		return size == 0;
+	}
+	
+	/**
+	 * @return The number of entries the table has room for, before the load factor.
+	 */
+	int capacity( )
+	{
+		return table.length / 2;
+	}
+	
+	/**
+	 * Makes sure the table has room for a given number of entries without
+	 * growing.
+	 * 
+	 * @param EXPECTED The number of entries.
+	 */
+	void ensureCapacity(final int EXPECTED)
+	{
+		final int CAPACITY = capacityFor(EXPECTED);
+		
+		if (CAPACITY * 2 > table.length)
+		{
+			resize(CAPACITY);
+		}
+	}
+	
+	/**
+	 * Doubles the capacity of the table, or if it can't grow any further,
+	 * lets it fill up completely.
+	 * 
+	 * @throws IllegalStateException If the table is completely full.
+	 */
+	private void grow( )
+	{
+		final int CAPACITY = table.length / 2;
+		
+		if (CAPACITY < MAXIMUM_CAPACITY)
+		{
+			resize(CAPACITY * 2);
+		}
+		else if (size < CAPACITY - 1)
+		{ // At least one slot has to stay empty, to end every probe.
+			threshold = CAPACITY - 1;
+		}
+		else
+		{
+			throw new IllegalStateException("Too many objects to clone.");
+		}
+	}
+	
+	/**
+	 * Moves every entry into a new array.
+	 * 
+	 * @param CAPACITY The number of entries the new array has room for, a power of two.
+	 */
+	private void resize(final int CAPACITY)
+	{
+		final Object[ ] OLD = table;
+		
+		allocate(CAPACITY);
+		
+		final Object[ ] TABLE = table;
+		
+		final int LENGTH = TABLE.length;
+		
+		for (int old = 0; old < OLD.length; old += 2)
+		{
+			final Object KEY = OLD[old];
+			
+			if (KEY != null)
+			{
+				int index = indexFor(KEY, LENGTH);
+				
+				while (TABLE[index] != null)
+				{
+					index = (index + 2) & (LENGTH - 1);
+				}
+				
+				TABLE[index] = KEY;
+				
+				TABLE[index + 1] = OLD[old + 1];
+			}
+		}
+	}
+}
\ No newline at end of file
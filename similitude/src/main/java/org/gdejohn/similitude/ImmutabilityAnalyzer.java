@@ -0,0 +1,198 @@
+package org.gdejohn.similitude;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static java.lang.reflect.Modifier.isFinal;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+
+/**
+ * Infers whether classes are deeply immutable.
+ * 
+ * A class is inferred to be deeply immutable if it's final, and every
+ * instance field it declares or inherits is final, and declared as a type
+ * whose every possible value is itself deeply immutable: a primitive type, an
+ * enum, a known immutable type that can't be subclassed, such as {@code
+ * String}, or another final class that's inferred to be deeply immutable. Arrays are always mutable, and a field declared as a
+ * non-final class or an interface might refer to a mutable subtype, so either
+ * one is enough to make a class mutable.
+ * 
+ * Inference only looks at declarations, so a class that mutates a final
+ * field reflectively, or through native code, can fool it. That's why it's
+ * opt-in.
+ */
+final class ImmutabilityAnalyzer
+{
+	static final Logger LOGGER = getLogger(ImmutabilityAnalyzer.class);
+	
+	/**
+	 * Classes whose instances are immutable even though their fields don't
+	 * show it, such as a lazily computed hash code.
+	 * 
+	 * Only instances of these exact classes are immutable. {@code BigInteger}
+	 * and {@code BigDecimal} aren't final, so a subclass can add mutable
+	 * state. The exception is {@code ZoneId}, whose constructor only admits
+	 * the JDK's own final subclasses, so all of them count.
+	 */
+	private static final Set<Class<?>> KNOWN_IMMUTABLE =
+	(
+		new HashSet<Class<?>>
+		(
+			Arrays.<Class<?>>asList
+			(
+				String.class,
+				BigInteger.class,
+				BigDecimal.class,
+				ZoneId.class
+			)
+		)
+	);
+	
+	/**
+	 * Classes mapped to whether they're inferred to be deeply immutable.
+	 */
+	private static final ClassValue<Boolean> VERDICTS =
+	(
+		new ClassValue<Boolean>( )
+		{
+			@Override
+			protected Boolean computeValue(final Class<?> CLASS)
+			{
+				final boolean IMMUTABLE =
+				(
+					isKnownImmutable(CLASS) || isImmutable(CLASS, new HashSet<Class<?>>( ))
+				);
+				
+				LOGGER.debug
+				(
+					"Inferred class {} to be {}.",
+					CLASS.getSimpleName( ),
+					IMMUTABLE ? "immutable" : "mutable"
+				);
+				
+				return IMMUTABLE ? TRUE : FALSE;
+			}
+		}
+	);
+	
+	private ImmutabilityAnalyzer( )
+	{
+		throw new AssertionError("Not instantiable.");
+	}
+	
+	/**
+	 * Checks whether a given class is inferred to be deeply immutable.
+	 * 
+	 * The verdict is only inferred once per class.
+	 * 
+	 * @param CLASS The class to check.
+	 * 
+	 * @return {@code true} if every instance whose class is exactly {@code CLASS} is deeply immutable, else {@code false}.
+	 */
+	static boolean isImmutable(final Class<?> CLASS)
+	{
+		return VERDICTS.get(CLASS).booleanValue( );
+	}
+	
+	/**
+	 * Infers whether a given class is deeply immutable.
+	 * 
+	 * A class that refers back to itself, directly or not, such as an
+	 * immutable linked list node, is assumed to be immutable while it's
+	 * being inferred, so that it's only mutable if something else makes it
+	 * mutable. Verdicts for those classes depend on that assumption, so only
+	 * the verdict for the class that inference started from is cached.
+	 * 
+	 * @param CLASS The class to infer.
+	 * @param IN_PROGRESS The classes currently being inferred.
+	 * 
+	 * @return {@code true} if every instance of {@code CLASS} is deeply immutable, else {@code false}.
+	 */
+	private static boolean isImmutable(final Class<?> CLASS, final Set<Class<?>> IN_PROGRESS)
+	{
+		if (CLASS.isPrimitive( ) || CLASS.isEnum( ))
+		{
+			return true;
+		}
+		else if (isKnownImmutable(CLASS) && (isFinal(CLASS.getModifiers( )) || ZoneId.class.isAssignableFrom(CLASS)))
+		{ // No subtype can be mutable either.
+			return true;
+		}
+		else if (CLASS.isArray( ) || CLASS.isInterface( ) || isFinal(CLASS.getModifiers( )) == false)
+		{ // Might refer to a mutable array or subtype.
+			return false;
+		}
+		else if (IN_PROGRESS.add(CLASS) == false)
+		{ // Already being inferred, assume it's immutable.
+			return true;
+		}
+		
+		for (Class<?> type = CLASS; type != null; type = type.getSuperclass( ))
+		{
+			final Field[ ] FIELDS;
+			
+			try
+			{
+				FIELDS = type.getDeclaredFields( );
+			}
+			catch (SecurityException e)
+			{
+				LOGGER.debug
+				(
+					"Couldn't get fields of class {}.", type.getSimpleName( ), e
+				);
+				
+				return false;
+			}
+			
+			for (final Field FIELD : FIELDS)
+			{
+				final int MODIFIERS = FIELD.getModifiers( );
+				
+				if (isStatic(MODIFIERS))
+				{
+					continue;
+				}
+				else if (isFinal(MODIFIERS) == false)
+				{
+					LOGGER.debug("Field {} isn't final.", FIELD);
+					
+					return false;
+				}
+				else if (isImmutable(FIELD.getType( ), IN_PROGRESS) == false)
+				{
+					LOGGER.debug("Field {} might be mutable.", FIELD);
+					
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks whether a given class is a known immutable type, or a subclass of
+	 * {@code ZoneId}.
+	 * 
+	 * @param CLASS The class to check.
+	 * 
+	 * @return {@code true} if instances of exactly {@code CLASS} are known to be immutable, else {@code false}.
+	 * 
+	 * @see #KNOWN_IMMUTABLE
+	 */
+	private static boolean isKnownImmutable(final Class<?> CLASS)
+	{
+		return KNOWN_IMMUTABLE.contains(CLASS) || ZoneId.class.isAssignableFrom(CLASS);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package org.gdejohn.similitude;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * Logs every event through SLF4J, at debug level.
+ * 
+ * Events are logged by the same loggers that log everything else for the
+ * class that raised them, {@link Cloner}, {@link Builder} or {@link
+ * TypeToken}, so they can be turned on and off the same way. Since that's
+ * only checked once an event has already been raised, this tracer is meant
+ * for debugging, not for being left installed.
+ */
+public final class LoggingTracer implements Tracer
+{
+	@Override
+	public void objectVisited(final Object ORIGINAL, final Object CLONE)
+	{
+		if (Cloner.LOGGER.isDebugEnabled( ) == false)
+		{
+			return;
+		}
+		else if (ORIGINAL == CLONE)
+		{
+			Cloner.LOGGER.debug
+			(
+				"Shallow-copying value of type {}: \"{}\"",
+				ORIGINAL.getClass( ).getSimpleName( ),
+				ORIGINAL
+			);
+		}
+		else
+		{
+			Cloner.LOGGER.debug
+			(
+				"Cloned object of type {}.",
+				ORIGINAL.getClass( ).getSimpleName( )
+			);
+		}
+	}
+	
+	@Override
+	public void cloneFinished(final Object ORIGINAL, final Object CLONE, final long NANOS)
+	{
+		Cloner.LOGGER.debug
+		(
+			"Cloned {} in {} ns.", ORIGINAL.getClass( ).getSimpleName( ), NANOS
+		);
+	}
+	
+	@Override
+	public void fieldCopied(final Object CLONE, final Field FIELD, final Object VALUE)
+	{
+		Cloner.LOGGER.debug("Successfully cloned and set field: {}", FIELD);
+	}
+	
+	@Override
+	public void constructorTried(final Constructor<?> CONSTRUCTOR, final Throwable FAILURE)
+	{
+		if (Builder.LOGGER.isDebugEnabled( ) == false)
+		{
+			return;
+		}
+		else if (FAILURE == null)
+		{
+			Builder.LOGGER.debug
+			(
+				"Invoked constructor: {}", CONSTRUCTOR.toGenericString( )
+			);
+		}
+		else
+		{
+			Builder.LOGGER.debug
+			(
+				"Constructor failed: {}", CONSTRUCTOR.toGenericString( ), FAILURE
+			);
+		}
+	}
+	
+	@Override
+	public void typeInferred(final Object OBJECT, final TypeToken<?> TYPE)
+	{
+		TypeToken.LOGGER.debug("Inferred type {} of object: {}", TYPE, OBJECT);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+package org.gdejohn.similitude;
+
+import static java.lang.reflect.Modifier.isAbstract;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+
+/**
+ * Allocates instances of classes without running any of their constructors.
+ * 
+ * This uses the same mechanism as serialization: a constructor accessor is
+ * generated for each class that allocates an instance of that class, but only
+ * runs the nullary constructor of {@code Object}. Every field of the new
+ * instance is left with its default value. The factory that generates these
+ * accessors isn't part of the standard API, so it's looked up reflectively,
+ * and if it's missing, every allocation fails and callers are expected to
+ * fall back to a real constructor.
+ */
+final class RawAllocator
+{
+	static final Logger LOGGER = getLogger(RawAllocator.class);
+	
+	/**
+	 * The serialization constructor factory, or {@code null} if it's missing.
+	 */
+	private static final Object FACTORY;
+	
+	/**
+	 * Generates a serialization constructor for a class, or {@code null} if
+	 * the factory is missing.
+	 */
+	private static final Method NEW_CONSTRUCTOR;
+	
+	/*
+	 * Static initializer.
+	 */
+	static
+	{
+		Object factory = null;
+		Method newConstructor = null;
+		
+		try
+		{
+			final Class<?> CLASS = Class.forName("sun.reflect.ReflectionFactory");
+			
+			factory = CLASS.getMethod("getReflectionFactory").invoke(null);
+			
+			newConstructor =
+			(
+				CLASS.getMethod
+				(
+					"newConstructorForSerialization",
+					Class.class,
+					Constructor.class
+				)
+			);
+		}
+		catch (Exception e)
+		{
+			LOGGER.debug("Raw allocation isn't supported.", e);
+			
+			factory = null;
+			newConstructor = null;
+		}
+		
+		FACTORY = factory;
+		NEW_CONSTRUCTOR = newConstructor;
+	}
+	
+	/**
+	 * Classes mapped to their serialization constructors, or {@code null} for
+	 * classes that can't be allocated this way.
+	 */
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS =
+	(
+		new ClassValue<Constructor<?>>( )
+		{
+			@Override
+			protected Constructor<?> computeValue(final Class<?> CLASS)
+			{
+				if (NEW_CONSTRUCTOR == null)
+				{
+					return null;
+				}
+				else if (CLASS.isPrimitive( ) || CLASS.isArray( ) || CLASS.isInterface( ) || isAbstract(CLASS.getModifiers( )))
+				{
+					return null;
+				}
+				
+				try
+				{
+					return
+					(
+						(Constructor<?>)NEW_CONSTRUCTOR.invoke
+						(
+							FACTORY,
+							CLASS,
+							Object.class.getDeclaredConstructor( )
+						)
+					);
+				}
+				catch (Exception e)
+				{
+					LOGGER.debug
+					(
+						"Couldn't generate serialization constructor for class {}.",
+						CLASS.getSimpleName( ),
+						e
+					);
+					
+					return null;
+				}
+			}
+		}
+	);
+	
+	private RawAllocator( )
+	{
+		throw new AssertionError("Not instantiable.");
+	}
+	
+	/**
+	 * Checks if a given class can be allocated without running any of its
+	 * constructors.
+	 * 
+	 * The answer is cached per class, so callers can check this for every
+	 * instance, rather than letting {@link #allocate(Class)} fail for each.
+	 * 
+	 * @param CLASS The class to check.
+	 * 
+	 * @return {@code true} if a serialization constructor was generated for {@code CLASS}, else {@code false}.
+	 */
+	static boolean canAllocate(final Class<?> CLASS)
+	{
+		return CONSTRUCTORS.get(CLASS) != null;
+	}
+	
+	/**
+	 * Allocates an instance of a given class without running any of its
+	 * constructors.
+	 * 
+	 * @param CLASS The class to allocate an instance of.
+	 * 
+	 * @return A new instance of {@code CLASS}, with every field set to its default value.
+	 * 
+	 * @throws InstantiationFailedException If {@code CLASS} can't be allocated without a constructor.
+	 */
+	static <T> T allocate(final Class<T> CLASS)
+	{
+		final Constructor<?> CONSTRUCTOR = CONSTRUCTORS.get(CLASS);
+		
+		if (CONSTRUCTOR == null)
+		{
+			throw
+			(
+				new InstantiationFailedException
+				(
+					"Class %s can't be allocated without a constructor.",
+					CLASS.getSimpleName( )
+				)
+			);
+		}
+		
+		try
+		{
+			return CLASS.cast(CONSTRUCTOR.newInstance( ));
+		}
+		catch (InvocationTargetException e)
+		{
+			throw
+			(
+				new InstantiationFailedException
+				(
+					e.getCause( ),
+					"Allocating class %s failed.",
+					CLASS.getSimpleName( )
+				)
+			);
+		}
+		catch (Exception e)
+		{
+			throw
+			(
+				new InstantiationFailedException
+				(
+					e,
+					"Allocating class %s failed.",
+					CLASS.getSimpleName( )
+				)
+			);
+		}
+	}
+}
\ No newline at end of file
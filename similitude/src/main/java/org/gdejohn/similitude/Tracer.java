@@ -0,0 +1,117 @@
+package org.gdejohn.similitude;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+
+/**
+ * Receives events as objects are cloned, instantiated, and have their types
+ * inferred.
+ * 
+ * A tracer is installed for everything at once, with {@link
+ * Tracing#setTracer(Tracer)}. While none is installed, no event is ever
+ * built, so tracing costs a single {@code null} check wherever an event could
+ * be raised. Every method does nothing by default, so a tracer only needs to
+ * override the events it's interested in.
+ * 
+ * Events are raised on whichever thread causes them, possibly on several
+ * threads at once, so tracers must be thread-safe. They're raised for every
+ * object and field, so they should also be fast, and they must not change
+ * any of the objects they're given.
+ * 
+ * @see LoggingTracer
+ */
+public interface Tracer
+{
+	/**
+	 * Raised whenever an object is reached while cloning.
+	 * 
+	 * @param ORIGINAL The object that was reached, never {@code null}.
+	 * @param CLONE What {@code ORIGINAL} was cloned to, which is either {@code ORIGINAL} itself if it's shallow-copied, a clone that was already made, or a new clone that may not be finished yet.
+	 */
+	default void objectVisited(final Object ORIGINAL, final Object CLONE)
+	{
+	}
+	
+	/**
+	 * Raised whenever a new clone is associated with an object, before its
+	 * fields or elements have been cloned.
+	 * 
+	 * Every object reached while cloning that's neither shallow-copied nor
+	 * already cloned raises this, just before {@link #objectVisited(Object,
+	 * Object)}.
+	 * 
+	 * @param ORIGINAL The object being cloned, never {@code null}.
+	 * @param CLONE The new clone of {@code ORIGINAL}, which may have been allocated, or may be a reused instance.
+	 */
+	default void objectCloned(final Object ORIGINAL, final Object CLONE)
+	{
+	}
+	
+	/**
+	 * Raised whenever cloning an object passed to {@link Cloner} has
+	 * finished, along with everything reachable from it.
+	 * 
+	 * @param ORIGINAL The object that was cloned, never {@code null}.
+	 * @param CLONE The finished clone of {@code ORIGINAL}.
+	 * @param NANOS How long cloning {@code ORIGINAL} took, in nanoseconds.
+	 */
+	default void cloneFinished(final Object ORIGINAL, final Object CLONE, final long NANOS)
+	{
+	}
+	
+	/**
+	 * Raised whenever a field of a clone is set to the clone of the value in
+	 * the original.
+	 * 
+	 * Fields that are copied as is, such as primitives, are copied all at
+	 * once without raising this event.
+	 * 
+	 * @param CLONE The clone whose field was set.
+	 * @param FIELD The field.
+	 * @param VALUE The value the field was set to.
+	 */
+	default void fieldCopied(final Object CLONE, final Field FIELD, final Object VALUE)
+	{
+	}
+	
+	/**
+	 * Raised whenever a constructor is invoked to instantiate a class type.
+	 * 
+	 * @param CONSTRUCTOR The constructor.
+	 * @param FAILURE Why the constructor failed, or {@code null} if it succeeded.
+	 */
+	default void constructorTried(final Constructor<?> CONSTRUCTOR, final Throwable FAILURE)
+	{
+	}
+	
+	/**
+	 * Raised whenever the type of an object has been inferred.
+	 * 
+	 * @param OBJECT The object, never {@code null}.
+	 * @param TYPE The type of {@code OBJECT}.
+	 */
+	default void typeInferred(final Object OBJECT, final TypeToken<?> TYPE)
+	{
+	}
+	
+	/**
+	 * Raised whenever the canonical type of a class or generic type is looked
+	 * up in the cache.
+	 * 
+	 * @param TYPE The reflective type that was looked up, never {@code null}.
+	 */
+	default void typeLookedUp(final Type TYPE)
+	{
+	}
+	
+	/**
+	 * Raised whenever a type that was looked up wasn't cached yet, and had to
+	 * be built, just before {@link #typeLookedUp(Type)} for the same lookup.
+	 * 
+	 * @param TYPE The reflective type that was built, never {@code null}.
+	 */
+	default void typeBuilt(final Type TYPE)
+	{
+	}
+}
\ No newline at end of file
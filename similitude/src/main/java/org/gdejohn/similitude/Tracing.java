@@ -0,0 +1,50 @@
+package org.gdejohn.similitude;
+
+/**
+ * Holds the {@link Tracer} that's currently installed, if any.
+ */
+public final class Tracing
+{
+	/**
+	 * The installed tracer, or {@code null} if none is.
+	 * 
+	 * Read once per event, or once per traversal while cloning, so that
+	 * nothing is built while tracing is off.
+	 */
+	static volatile Tracer tracer = null;
+	
+	private Tracing( )
+	{
+		throw new AssertionError("Not instantiable.");
+	}
+	
+	/**
+	 * @return The installed tracer, or {@code null} if none is.
+	 */
+	public static Tracer getTracer( )
+	{
+		return tracer;
+	}
+	
+	/**
+	 * Installs a given tracer, replacing the one that was installed.
+	 * 
+	 * Clones that are already in progress keep raising events with the
+	 * tracer that was installed when they started.
+	 * 
+	 * @param TRACER The tracer to install, or {@code null} to turn tracing off.
+	 * 
+	 * @return The tracer that was installed, or {@code null} if none was.
+	 */
+	public static Tracer setTracer(final Tracer TRACER)
+	{
+		synchronized (Tracing.class)
+		{
+			final Tracer PREVIOUS = tracer;
+			
+			tracer = TRACER;
+			
+			return PREVIOUS;
+		}
+	}
+}
\ No newline at end of file
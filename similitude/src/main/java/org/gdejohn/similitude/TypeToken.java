@@ -3,7 +3,6 @@ package org.gdejohn.similitude;
 import static java.lang.Class.forName;
 import static java.lang.Integer.valueOf;
 import static java.lang.Math.nextUp;
-import static java.lang.reflect.Modifier.isPublic;
 import static java.lang.reflect.Modifier.isStatic;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.deepHashCode;
@@ -17,6 +16,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -32,6 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 
@@ -71,13 +74,18 @@ public class TypeToken<T>
 	
 	private final Set<TypeToken<?>> INTERFACES;
 	
-	private Set<Field> instanceFields = null;
+	/*
+	 * Canonical types are shared between threads, so memoized values are
+	 * volatile. Racing threads compute equal values, so any of them will do.
+	 */
+	
+	private volatile Set<Field> instanceFields = null;
 	
-	private Set<Constructor<T>> constructors = null;
+	private volatile Set<Constructor<T>> constructors = null;
 	
-	private Integer hashCode = null;
+	private volatile Integer hashCode = null;
 	
-	private String toString = null;
+	private volatile String toString = null;
 	
 	protected TypeToken( )
 	{
@@ -180,13 +188,6 @@ public class TypeToken<T>
 	
 	private static <T> TypeToken<T> typeOf(final Class<T> CLASS, final Map<TypeVariable<?>, TypeToken<?>> TYPE_ARGUMENTS, final TypeToken<?> ENCLOSING_TYPE, final Map<TypeToken<?>, TypeToken<?>> CALLERS)
 	{
-		LOGGER.debug
-		(
-			"Getting type of class \"{}\" with type arguments \"{}\"",
-			CLASS.getSimpleName( ),
-			TYPE_ARGUMENTS
-		);
-		
 		try
 		{
 			return
@@ -324,6 +325,9 @@ public class TypeToken<T>
 	/**
 	 * Models the type represented by a given {@code Class} instance.
 	 * 
+	 * The result is canonical, built once and returned by every subsequent
+	 * call for the same class.
+	 * 
 	 * @param <T> The type represented by {@code CLASS}.
 	 * @param CLASS The class to model.
 	 * 
@@ -333,7 +337,252 @@ public class TypeToken<T>
 	 */
 	public static <T> TypeToken<T> typeOf(final Class<T> CLASS)
 	{
-		return typeOf(CLASS, (TypeToken<?>)null);
+		if (CLASS == null)
+		{
+			return null;
+		}
+		
+		/*
+		 * Types are only ever stored with the classes they represent.
+		 */
+		@SuppressWarnings("unchecked")
+		final TypeToken<T> TYPE = (TypeToken<T>)CLASS_TYPES.get(CLASS);
+		
+		final Tracer TRACER = Tracing.tracer;
+		
+		if (TRACER != null)
+		{
+			TRACER.typeLookedUp(CLASS);
+		}
+		
+		return TYPE;
+	}
+	
+	/**
+	 * Canonical types of classes, as returned by {@link #typeOf(Class)}.
+	 * 
+	 * Each type is stored with the class it represents, so it doesn't keep
+	 * that class from being unloaded.
+	 */
+	private static final ClassValue<TypeToken<?>> CLASS_TYPES =
+	(
+		new ClassValue<TypeToken<?>>( )
+		{
+			@Override
+			protected TypeToken<?> computeValue(final Class<?> CLASS)
+			{
+				LOGGER.debug("Interning type of class {}.", CLASS.getName( ));
+				
+				final Tracer TRACER = Tracing.tracer;
+				
+				if (TRACER != null)
+				{
+					TRACER.typeBuilt(CLASS);
+				}
+				
+				return typeOf(CLASS, (TypeToken<?>)null);
+			}
+		}
+	);
+	
+	/**
+	 * Canonical types of generic types, as returned by {@link #typeOf(Type)}.
+	 * 
+	 * Types are keyed by the reflective types they model, which compare
+	 * structurally. Each one is stored with the class, out of all the classes
+	 * that its reflective type mentions, whose class loader can see all of
+	 * the others. That way, a cached type never keeps any class loader alive
+	 * longer than it would have been anyway.
+	 * 
+	 * @see #getAnchor(Type)
+	 */
+	private static final ClassValue<ConcurrentMap<Type, TypeToken<?>>> GENERIC_TYPES =
+	(
+		new ClassValue<ConcurrentMap<Type, TypeToken<?>>>( )
+		{
+			@Override
+			protected ConcurrentMap<Type, TypeToken<?>> computeValue(final Class<?> CLASS)
+			{
+				return new ConcurrentHashMap<Type, TypeToken<?>>( );
+			}
+		}
+	);
+	
+	/**
+	 * Collects every class mentioned by a given reflective type.
+	 * 
+	 * @param TYPE The reflective type to collect classes from.
+	 * @param CLASSES Where to add the classes.
+	 * 
+	 * @return {@code false} if {@code TYPE}, or any type it mentions, isn't implemented by the JDK itself, and so might not compare structurally.
+	 */
+	private static boolean collectClasses(final Type TYPE, final List<Class<?>> CLASSES)
+	{
+		if (TYPE == null)
+		{
+			return true;
+		}
+		else if (TYPE instanceof Class)
+		{
+			CLASSES.add((Class<?>)TYPE);
+			
+			return true;
+		}
+		else if (TYPE.getClass( ).getClassLoader( ) != null)
+		{ // Not loaded by the bootstrap class loader, so not from the JDK.
+			return false;
+		}
+		else if (TYPE instanceof ParameterizedType)
+		{
+			final ParameterizedType PARAMETERIZED_TYPE =
+			(
+				(ParameterizedType)TYPE
+			);
+			
+			if (collectClasses(PARAMETERIZED_TYPE.getRawType( ), CLASSES) == false)
+			{
+				return false;
+			}
+			else if (collectClasses(PARAMETERIZED_TYPE.getOwnerType( ), CLASSES) == false)
+			{
+				return false;
+			}
+			
+			for (final Type ARGUMENT : PARAMETERIZED_TYPE.getActualTypeArguments( ))
+			{
+				if (collectClasses(ARGUMENT, CLASSES) == false)
+				{
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		else if (TYPE instanceof GenericArrayType)
+		{
+			return
+			(
+				collectClasses
+				(
+					((GenericArrayType)TYPE).getGenericComponentType( ),
+					CLASSES
+				)
+			);
+		}
+		else if (TYPE instanceof WildcardType)
+		{
+			final WildcardType WILDCARD_TYPE = (WildcardType)TYPE;
+			
+			for (final Type BOUND : WILDCARD_TYPE.getUpperBounds( ))
+			{
+				if (collectClasses(BOUND, CLASSES) == false)
+				{
+					return false;
+				}
+			}
+			
+			for (final Type BOUND : WILDCARD_TYPE.getLowerBounds( ))
+			{
+				if (collectClasses(BOUND, CLASSES) == false)
+				{
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		else if (TYPE instanceof TypeVariable)
+		{ // Type variables refer to where they're declared.
+			final GenericDeclaration DECLARATION =
+			(
+				((TypeVariable<?>)TYPE).getGenericDeclaration( )
+			);
+			
+			if (DECLARATION instanceof Class)
+			{
+				CLASSES.add((Class<?>)DECLARATION);
+				
+				return true;
+			}
+			else if (DECLARATION instanceof Member)
+			{
+				CLASSES.add(((Member)DECLARATION).getDeclaringClass( ));
+				
+				return true;
+			}
+			else
+			{
+				return false;
+			}
+		}
+		else
+		{
+			return false;
+		}
+	}
+	
+	/**
+	 * Checks if a given class loader is the same as, or an ancestor of,
+	 * another one.
+	 */
+	private static boolean isAncestor(final ClassLoader ANCESTOR, final ClassLoader LOADER)
+	{
+		if (ANCESTOR == null)
+		{ // The bootstrap class loader is an ancestor of every class loader.
+			return true;
+		}
+		
+		for (ClassLoader loader = LOADER; loader != null; loader = loader.getParent( ))
+		{
+			if (loader == ANCESTOR)
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Finds the class to store the canonical type of a given reflective type
+	 * with.
+	 * 
+	 * That's the class, out of all the classes mentioned by the reflective
+	 * type, whose class loader has the class loaders of all of the others as
+	 * ancestors.
+	 * 
+	 * @param TYPE The reflective type.
+	 * 
+	 * @return The class to store the canonical type with, or {@code null} if {@code TYPE} can't be cached.
+	 */
+	private static Class<?> getAnchor(final Type TYPE)
+	{
+		final List<Class<?>> CLASSES = new ArrayList<Class<?>>( );
+		
+		if (collectClasses(TYPE, CLASSES) == false)
+		{
+			return null;
+		}
+		
+		Class<?> anchor = null;
+		
+		for (final Class<?> CLASS : CLASSES)
+		{
+			if (anchor == null)
+			{
+				anchor = CLASS;
+			}
+			else if (isAncestor(anchor.getClassLoader( ), CLASS.getClassLoader( )))
+			{
+				anchor = CLASS;
+			}
+			else if (isAncestor(CLASS.getClassLoader( ), anchor.getClassLoader( )) == false)
+			{ // Unrelated class loaders, neither can see the other.
+				return null;
+			}
+		}
+		
+		return anchor;
 	}
 	
 	private static Set<Field> getAllInstanceFields(Class<?> type)
@@ -372,7 +621,7 @@ public class TypeToken<T>
 		
 		if(OBJECTS == null)
 		{
-			final LinkedList<Object> LIST = new LinkedList<Object>( );
+			final List<Object> LIST = new ArrayList<Object>(2);
 			
 			LIST.add(VALUE);
 			
@@ -443,7 +692,7 @@ public class TypeToken<T>
 		throw new RuntimeException("Owner type not found.");
 	}
 	
-	private static TypeToken<?> getActualEnclosingType(final Class<?> ENCLOSING_CLASS, final Set<Field> INSTANCE_FIELDS, final Object INSTANCE, final IdentityHashMap<Object, TypeToken<?>> VALUES, final Map<Type, List<Object>> PARAMETERIZATIONS, final Map<TypeToken<?>, TypeToken<?>> CALLERS)
+	private static TypeToken<?> getActualEnclosingType(final Class<?> ENCLOSING_CLASS, final List<FieldAccessor> INSTANCE_FIELDS, final Object INSTANCE, final IdentityHashMap<Object, TypeToken<?>> VALUES, final Map<Type, List<Object>> PARAMETERIZATIONS, final Map<TypeToken<?>, TypeToken<?>> CALLERS)
 	{
 		if (ENCLOSING_CLASS == null)
 		{
@@ -472,7 +721,7 @@ public class TypeToken<T>
 					(
 						typeOf
 						(
-							INSTANCE_FIELDS.iterator( ).next( ).get(INSTANCE),
+							INSTANCE_FIELDS.get(0).get(INSTANCE),
 							VALUES
 						)
 					);
@@ -491,10 +740,292 @@ public class TypeToken<T>
 		}
 	}
 	
-	private static <T> TypeToken<? extends T> typeOf(final T OBJECT, final IdentityHashMap<Object, TypeToken<?>> VALUES)
+	/**
+	 * Checks if instances of a given class always have the same type.
+	 * 
+	 * That's the case unless the class declares type parameters, or is an
+	 * inner class whose enclosing instance might not.
+	 * 
+	 * @param CLASS The class to check.
+	 * 
+	 * @return {@code true} if the type of every instance of {@code CLASS} is {@code typeOf(CLASS)}.
+	 */
+	static boolean isInvariant(final Class<?> CLASS)
+	{
+		if (CLASS.getTypeParameters( ).length > 0)
+		{
+			return false;
+		}
+		else if (CLASS.isMemberClass( ) && isStatic(CLASS.getModifiers( )) == false)
+		{
+			return false;
+		}
+		else
+		{
+			return true;
+		}
+	}
+	
+	/**
+	 * Checks if a given type mentions any type variables.
+	 */
+	private static boolean mentionsTypeVariable(final Type TYPE)
 	{
-		LOGGER.debug("Getting type of object: {}", OBJECT);
+		if (TYPE instanceof TypeVariable)
+		{
+			return true;
+		}
+		else if (TYPE instanceof ParameterizedType)
+		{
+			final ParameterizedType PARAMETERIZED_TYPE =
+			(
+				(ParameterizedType)TYPE
+			);
+			
+			for (final Type ARGUMENT : PARAMETERIZED_TYPE.getActualTypeArguments( ))
+			{
+				if (mentionsTypeVariable(ARGUMENT))
+				{
+					return true;
+				}
+			}
+			
+			return mentionsTypeVariable(PARAMETERIZED_TYPE.getOwnerType( ));
+		}
+		else if (TYPE instanceof GenericArrayType)
+		{
+			return
+			(
+				mentionsTypeVariable
+				(
+					((GenericArrayType)TYPE).getGenericComponentType( )
+				)
+			);
+		}
+		else if (TYPE instanceof WildcardType)
+		{
+			final WildcardType WILDCARD_TYPE = (WildcardType)TYPE;
+			
+			for (final Type BOUND : WILDCARD_TYPE.getUpperBounds( ))
+			{
+				if (mentionsTypeVariable(BOUND))
+				{
+					return true;
+				}
+			}
+			
+			for (final Type BOUND : WILDCARD_TYPE.getLowerBounds( ))
+			{
+				if (mentionsTypeVariable(BOUND))
+				{
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		else
+		{ // Class, or null.
+			return false;
+		}
+	}
+	
+	/**
+	 * Everything {@link #typeOf(Object)} needs to know about a class to infer
+	 * the runtime types of its instances.
+	 * 
+	 * Building a plan resolves the instance fields of a class once, and keeps
+	 * only those that could possibly help infer its type arguments, namely
+	 * the fields whose generic types mention type variables, and those that
+	 * hold enclosing instances. Inferring the type of an instance then only
+	 * reads those fields.
+	 */
+	static final class InferencePlan
+	{
+		private static final FieldAccessor[ ] NO_FIELDS = new FieldAccessor[0];
 		
+		private static final Type[ ] NO_KEYS = new Type[0];
+		
+		/**
+		 * {@code true} if every instance has the same type, so that nothing
+		 * needs to be inferred.
+		 * 
+		 * @see TypeToken#isInvariant(Class)
+		 */
+		final boolean INVARIANT;
+		
+		/**
+		 * The enclosing class, if the class is an inner class.
+		 */
+		final Class<?> ENCLOSING_CLASS;
+		
+		/**
+		 * Fields that hold the enclosing instance.
+		 */
+		final FieldAccessor[ ] ENCLOSING_FIELDS;
+		
+		/**
+		 * Fields whose values might determine type arguments.
+		 */
+		final FieldAccessor[ ] FIELDS;
+		
+		/**
+		 * The generic type that the value of each field in {@link #FIELDS} at
+		 * the same index is a parameterization of, or {@code null} if it has
+		 * to be looked up again for every instance.
+		 */
+		final Type[ ] KEYS;
+		
+		/**
+		 * The first field in {@link #ENCLOSING_FIELDS} or {@link #FIELDS} that
+		 * couldn't be made accessible, or {@code null} if they all could.
+		 * 
+		 * Without its value, some type arguments would be left out, so types
+		 * of instances can't be inferred at all.
+		 */
+		final FieldAccessor DENIED;
+		
+		InferencePlan(final Class<?> CLASS)
+		{
+			this.INVARIANT = isInvariant(CLASS);
+			
+			if (CLASS.isMemberClass( ) && isStatic(CLASS.getModifiers( )) == false)
+			{ // Non-static member class.
+				this.ENCLOSING_CLASS = CLASS.getEnclosingClass( );
+				
+				if (this.ENCLOSING_CLASS == null)
+				{
+					throw new RuntimeException("Enclosing class is null.");
+				}
+			}
+			else
+			{
+				this.ENCLOSING_CLASS = null;
+			}
+			
+			if (this.INVARIANT)
+			{
+				this.ENCLOSING_FIELDS = NO_FIELDS;
+				
+				this.FIELDS = NO_FIELDS;
+				
+				this.KEYS = NO_KEYS;
+				
+				this.DENIED = null;
+				
+				return;
+			}
+			
+			final List<FieldAccessor> ENCLOSING_FIELDS =
+			(
+				new ArrayList<FieldAccessor>(1)
+			);
+			
+			final List<FieldAccessor> FIELDS = new ArrayList<FieldAccessor>( );
+			
+			final List<Type> KEYS = new ArrayList<Type>( );
+			
+			for (final FieldAccessor ACCESSOR : FieldAccessor.forClass(CLASS))
+			{
+				final Field FIELD = ACCESSOR.FIELD;
+				
+				final Type FIELD_TYPE = FIELD.getGenericType( );
+				
+				if (FIELD.isSynthetic( ) && FIELD.getName( ).matches("\\Athis\\$\\d++\\z"))
+				{ // "this$" followed by one or more digits
+					if (FIELD_TYPE.equals(this.ENCLOSING_CLASS))
+					{
+						ENCLOSING_FIELDS.add(ACCESSOR);
+						
+						continue;
+					}
+					else if (FIELD_TYPE instanceof Class)
+					{
+						Type key;
+						
+						try
+						{
+							key =
+							(
+								getGenericEnclosingType
+								(
+									CLASS, (Class<?>)FIELD_TYPE
+								)
+							);
+						}
+						catch (final RuntimeException e)
+						{ // Rethrown for any instance where the field isn't null.
+							key = null;
+						}
+						
+						if (key == null || mentionsTypeVariable(key))
+						{
+							FIELDS.add(ACCESSOR);
+							
+							KEYS.add(key);
+						}
+						
+						continue;
+					}
+				}
+				
+				if (mentionsTypeVariable(FIELD_TYPE))
+				{
+					FIELDS.add(ACCESSOR);
+					
+					KEYS.add(FIELD_TYPE);
+				}
+			}
+			
+			this.ENCLOSING_FIELDS = ENCLOSING_FIELDS.toArray(NO_FIELDS);
+			
+			this.FIELDS = FIELDS.toArray(NO_FIELDS);
+			
+			this.KEYS = KEYS.toArray(NO_KEYS);
+			
+			FieldAccessor denied = null;
+			
+			for (final FieldAccessor ACCESSOR : ENCLOSING_FIELDS)
+			{
+				if (ACCESSOR.ACCESSIBLE == false)
+				{
+					denied = ACCESSOR;
+					
+					break;
+				}
+			}
+			
+			for (final FieldAccessor ACCESSOR : FIELDS)
+			{
+				if (denied == null && ACCESSOR.ACCESSIBLE == false)
+				{
+					denied = ACCESSOR;
+					
+					break;
+				}
+			}
+			
+			this.DENIED = denied;
+		}
+	}
+	
+	/**
+	 * Inference plans, built once per class.
+	 */
+	static final ClassValue<InferencePlan> INFERENCE_PLANS =
+	(
+		new ClassValue<InferencePlan>( )
+		{
+			@Override
+			protected InferencePlan computeValue(final Class<?> CLASS)
+			{
+				return new InferencePlan(CLASS);
+			}
+		}
+	);
+	
+	private static <T> TypeToken<? extends T> typeOf(final T OBJECT, final IdentityHashMap<Object, TypeToken<?>> VALUES)
+	{
 		if (OBJECT == null)
 		{
 			return null;
@@ -506,93 +1037,78 @@ public class TypeToken<T>
 			(Class<? extends T>)OBJECT.getClass( )
 		);
 		
-		final Set<Field> INSTANCE_FIELDS = getAllInstanceFields(RAW_TYPE);
+		final InferencePlan PLAN = INFERENCE_PLANS.get(RAW_TYPE);
+		
+		if (PLAN.INVARIANT)
+		{ // Nothing to infer.
+			return typeOf(RAW_TYPE);
+		}
+		else if (PLAN.DENIED != null)
+		{ // Refuse, rather than leave out type arguments.
+			throw
+			(
+				new RuntimeException
+				(
+					String.format
+					(
+						"Field \"%s\" couldn't be set accessible, type of %s can't be inferred.",
+						PLAN.DENIED,
+						RAW_TYPE.getSimpleName( )
+					),
+					PLAN.DENIED.DENIAL
+				)
+			);
+		}
 		
 		final Map<Type, List<Object>> PARAMETERIZATIONS =
 		(
 			new LinkedHashMap<Type, List<Object>>
 			(
-				INSTANCE_FIELDS.size( ), nextUp(1.0f)
+				PLAN.FIELDS.length, nextUp(1.0f)
 			)
 		);
 		
-		final Class<?> ENCLOSING_CLASS;
-		
-		if (RAW_TYPE.isMemberClass( ) && !isStatic(RAW_TYPE.getModifiers( )))
-		{ // Non-static member class.
-			ENCLOSING_CLASS = RAW_TYPE.getEnclosingClass( );
-			
-			if (ENCLOSING_CLASS == null)
-			{
-				throw new RuntimeException("Enclosing class is null.");
-			}
-		}
-		else
-		{
-			ENCLOSING_CLASS = null;
-		}
-		
-		final Iterator<Field> ITERATOR = INSTANCE_FIELDS.iterator( );
+		/*
+		 * Fields holding the enclosing instance, if any.
+		 */
+		final List<FieldAccessor> ENCLOSING_FIELDS =
+		(
+			new ArrayList<FieldAccessor>(1)
+		);
 		
-		while (ITERATOR.hasNext( ))
+		try
 		{
-			final Field FIELD = ITERATOR.next( );
-			
-			try
+			for (final FieldAccessor ACCESSOR : PLAN.ENCLOSING_FIELDS)
 			{
-				if (isPublic(FIELD.getModifiers( )) == false)
+				if (ACCESSOR.get(OBJECT) != null)
 				{
-					FIELD.setAccessible(true);
+					ENCLOSING_FIELDS.add(ACCESSOR);
 				}
-				
-				final Object VALUE = FIELD.get(OBJECT);
+			}
+			
+			for (int index = 0; index < PLAN.FIELDS.length; index++)
+			{
+				final Object VALUE = PLAN.FIELDS[index].get(OBJECT);
 				
 				if (VALUE != null)
 				{ // Check for recursive data types?
-					final Type FIELD_TYPE = FIELD.getGenericType( );
+					final Type KEY = PLAN.KEYS[index];
 					
-					if (FIELD.isSynthetic( ))
-					{
-						if (FIELD.getName( ).matches("\\Athis\\$\\d++\\z"))
-						{ // "this$" followed by one or more digits
-							if (FIELD_TYPE.equals(ENCLOSING_CLASS))
-							{
-								continue; // skip remove() at end of loop
-							}
-							else if (FIELD_TYPE instanceof Class)
-							{
-								multiMap
-								(
-									PARAMETERIZATIONS,
-									getGenericEnclosingType
-									(
-										RAW_TYPE, (Class<?>)FIELD_TYPE
-									),
-									VALUE
-								);
-							}
-						}
+					if (KEY == null)
+					{ // Throws the same exception as when the plan was built.
+						getGenericEnclosingType
+						(
+							RAW_TYPE, (Class<?>)PLAN.FIELDS[index].FIELD.getType( )
+						);
 					}
 					
-					if ((FIELD_TYPE instanceof Class) == false)
-					{
-						multiMap(PARAMETERIZATIONS, FIELD_TYPE, VALUE);
-					}
+					multiMap(PARAMETERIZATIONS, KEY, VALUE);
 				}
 			}
-			catch (final SecurityException e)
-			{
-				LOGGER.debug("Couldn't set field accessible.", e);
-			}
-			catch (final IllegalAccessException e)
-			{ // SecurityException should always be thrown before this.
-				throw new RuntimeException(e);
-			}
-			
-			/*
-			 * Removes FIELD unless its the enclosing instance.
-			 */
-			ITERATOR.remove( );
+		}
+		catch (final IllegalAccessException e)
+		{ // Plans with inaccessible fields are refused above.
+			throw new RuntimeException(e);
 		}
 		
 		final Map<TypeToken<?>, TypeToken<?>> CALLERS =
@@ -604,8 +1120,8 @@ public class TypeToken<T>
 		(
 			getActualEnclosingType
 			(
-				ENCLOSING_CLASS,
-				INSTANCE_FIELDS,
+				PLAN.ENCLOSING_CLASS,
+				ENCLOSING_FIELDS,
 				OBJECT,
 				VALUES,
 				PARAMETERIZATIONS,
@@ -637,7 +1153,19 @@ public class TypeToken<T>
 	 */
 	public static <T> TypeToken<? extends T> typeOf(final T OBJECT)
 	{
-		return typeOf(OBJECT, new IdentityHashMap<Object, TypeToken<?>>( ));
+		final TypeToken<? extends T> TYPE =
+		(
+			typeOf(OBJECT, new IdentityHashMap<Object, TypeToken<?>>( ))
+		);
+		
+		final Tracer TRACER = Tracing.tracer;
+		
+		if (TRACER != null && OBJECT != null)
+		{
+			TRACER.typeInferred(OBJECT, TYPE);
+		}
+		
+		return TYPE;
 	}
 	
 	private static TypeToken<?> typeOf(final WildcardType WILDCARD_TYPE, final TypeToken<?> PARENT, final Map<Type, List<Object>> PARAMETERIZATIONS, final Map<TypeToken<?>, TypeToken<?>> CALLERS)
@@ -911,19 +1439,6 @@ public class TypeToken<T>
 	
 	private static TypeToken<?> typeOf(final TypeVariable<?> TYPE_VARIABLE, final TypeToken<?> PARENT, final Map<Type, List<Object>> PARAMETERIZATIONS, final Map<TypeToken<?>, TypeToken<?>> CALLERS, final IdentityHashMap<Object, TypeToken<?>> VALUES)
 	{
-		LOGGER.debug
-		(
-			"Getting type of type variable.\nType variable: {}\nDeclarer: {}\nParent: {}\nParameterizations: {}\nCallers: {}",
-			new Object[ ]
-			{
-				TYPE_VARIABLE,
-				TYPE_VARIABLE.getGenericDeclaration( ),
-				PARENT,
-				PARAMETERIZATIONS,
-				CALLERS
-			}
-		);
-		
 		if (PARENT != null)
 		{
 			try
@@ -1027,13 +1542,6 @@ public class TypeToken<T>
 					{
 						typeArgument = VALUES.get(OBJECT);
 						
-						LOGGER.debug
-						(
-							"Value already encountered: {} = {}",
-							typeArgument,
-							OBJECT
-						);
-						
 						if (typeArgument == null)
 						{
 							continue;
@@ -1046,11 +1554,6 @@ public class TypeToken<T>
 						typeArgument = typeOf(OBJECT, VALUES);
 						
 						VALUES.put(OBJECT, typeArgument);
-						
-						LOGGER.debug
-						(
-							"Value added: {} = {}", typeArgument, OBJECT
-						);
 					}
 					
 					for (final TypeVariable<?> TYPE_PARAMETER : TRACE)
@@ -1071,14 +1574,10 @@ public class TypeToken<T>
 		
 		if (TYPE_ARGUMENTS.isEmpty( ))
 		{
-			LOGGER.debug("Type arguments empty.");
-			
 			return null;
 		}
 		else
 		{
-			LOGGER.debug("Type arguments: {}", TYPE_ARGUMENTS);
-			
 			final Iterator<TypeToken<?>> ITERATOR = TYPE_ARGUMENTS.iterator( );
 			
 			TypeToken<?> typeArgument = ITERATOR.next( );
@@ -1175,6 +1674,11 @@ public class TypeToken<T>
 	/**
 	 * Models the type represented by the given {@code Type} instance.
 	 * 
+	 * Parameterized types and other generic types from the reflection API
+	 * are interned, so that equal types share one canonical result. Only the
+	 * types that are implemented by the JDK itself are interned, since others
+	 * might not compare structurally.
+	 * 
 	 * @param TYPE The type to model.
 	 * 
 	 * @return A {@code TypeToken} representing {@code TYPE}.
@@ -1183,7 +1687,56 @@ public class TypeToken<T>
 	 */
 	public static TypeToken<?> typeOf(final Type TYPE)
 	{
-		return typeOf(TYPE, (TypeToken<?>)null);
+		if (TYPE instanceof Class)
+		{
+			return typeOf((Class<?>)TYPE);
+		}
+		
+		final Class<?> ANCHOR = (TYPE == null) ? null : getAnchor(TYPE);
+		
+		if (ANCHOR == null)
+		{
+			return typeOf(TYPE, (TypeToken<?>)null);
+		}
+		
+		final ConcurrentMap<Type, TypeToken<?>> TYPES =
+		(
+			GENERIC_TYPES.get(ANCHOR)
+		);
+		
+		final TypeToken<?> CACHED = TYPES.get(TYPE);
+		
+		final Tracer TRACER = Tracing.tracer;
+		
+		if (CACHED == null)
+		{
+			final TypeToken<?> BUILT = typeOf(TYPE, (TypeToken<?>)null);
+			
+			if (BUILT == null)
+			{
+				return null;
+			}
+			
+			final TypeToken<?> EXISTING = TYPES.putIfAbsent(TYPE, BUILT);
+			
+			if (TRACER != null)
+			{
+				TRACER.typeBuilt(TYPE);
+				
+				TRACER.typeLookedUp(TYPE);
+			}
+			
+			return (EXISTING == null) ? BUILT : EXISTING;
+		}
+		else
+		{
+			if (TRACER != null)
+			{
+				TRACER.typeLookedUp(TYPE);
+			}
+			
+			return CACHED;
+		}
 	}
 	
 	/**
@@ -1790,7 +2343,11 @@ public class TypeToken<T>
 	@Override
 	public final boolean equals(final Object THAT)
 	{
-		if (THAT instanceof TypeToken)
+		if (THAT == this)
+		{ // Canonical types are often compared with themselves.
+			return true;
+		}
+		else if (THAT instanceof TypeToken)
 		{
 			final TypeToken<?> TYPE = (TypeToken<?>)THAT;
 			
@@ -10,11 +10,15 @@ import static java.lang.Float.valueOf;
 import static java.lang.Integer.valueOf;
 import static java.lang.Long.valueOf;
 import static java.lang.Short.valueOf;
+import static org.gdejohn.similitude.TypeToken.typeOf;
 import static org.slf4j.Logger.ROOT_LOGGER_NAME;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 
 import java.util.List;
 
@@ -95,4 +99,138 @@ public class BuilderTest
 		
 		assertFalse(list.add(null));
 	}
+	
+	private static class Picky
+	{
+		String name;
+		
+		Integer size;
+		
+		Picky(String name)
+		{
+			if (name.isEmpty( ))
+			{
+				throw new IllegalArgumentException( );
+			}
+			
+			this.name = name;
+		}
+		
+		Picky(Integer size)
+		{
+			if (size.intValue( ) == 0)
+			{
+				throw new IllegalArgumentException( );
+			}
+			
+			this.size = size;
+		}
+	}
+	
+	public static void changedDefaults(Builder builder)
+	{
+		builder.addDefault(typeOf(Integer.class), 7);
+		
+		for (int index = 0; index < 2; index++)
+		{
+			Picky picky = builder.instantiate(Picky.class);
+			
+			assertNull(picky.name);
+			assertEquals(picky.size, valueOf(7));
+		}
+		
+		builder.addDefault(typeOf(Integer.class), 0);
+		builder.addDefault(typeOf(String.class), "xyzzy");
+		
+		Picky picky = builder.instantiate(Picky.class);
+		
+		assertEquals(picky.name, "xyzzy");
+		assertNull(picky.size);
+	}
+	
+	private static class Node
+	{
+		Node next;
+		
+		Node(Node next)
+		{
+			this.next = next;
+		}
+	}
+	
+	public static void selfReferentialConstructor(Builder builder)
+	{
+		Node node = builder.instantiate(Node.class);
+		
+		assertNotNull(node);
+		assertNull(node.next);
+		assertSame(builder.instantiate(Node.class).getClass( ), Node.class);
+	}
+	
+	private static class Parent
+	{
+		final Child child;
+		
+		Parent(Child child)
+		{
+			this.child = child;
+		}
+	}
+	
+	private static class Child
+	{
+		final Parent parent;
+		
+		Child(Parent parent)
+		{
+			this.parent = parent;
+		}
+	}
+	
+	public static void mutuallyReferentialConstructors(Builder builder)
+	{
+		Parent parent = builder.instantiate(Parent.class);
+		
+		assertNotNull(parent.child);
+		assertNull(parent.child.parent);
+		
+		/*
+		 * Child only got a null parent because Parent was already being
+		 * instantiated, which isn't the case now.
+		 */
+		Child child = builder.instantiate(Child.class);
+		
+		assertNotNull(child.parent);
+		assertNull(child.parent.child);
+		assertNotNull(builder.instantiate(Child.class).parent);
+		assertNotNull(builder.instantiate(Parent.class).child);
+	}
+	
+	private static interface Holder
+	{
+		List<String> getValues( );
+		
+		String describe(Object value);
+	}
+	
+	public static void proxyResults(Builder builder)
+	{
+		Holder first = builder.instantiate(Holder.class);
+		Holder second = builder.instantiate(Holder.class);
+		
+		assertSame(first.getClass( ), second.getClass( ));
+		assertNotSame(first.getValues( ), first.getValues( ));
+		assertEquals(first.describe(null), "");
+		assertFalse(builder.isMemoizingProxyResults( ));
+		
+		builder.setMemoizingProxyResults(true);
+		
+		Holder memoizing = builder.instantiate(Holder.class);
+		
+		assertSame(memoizing.getClass( ), first.getClass( ));
+		assertSame(memoizing.getValues( ), memoizing.getValues( ));
+		assertNotSame(memoizing.getValues( ), builder.instantiate(Holder.class).getValues( ));
+		assertEquals(memoizing.hashCode( ), memoizing.hashCode( ));
+		assertNotSame(first.getValues( ), first.getValues( ));
+	}
 }
\ No newline at end of file
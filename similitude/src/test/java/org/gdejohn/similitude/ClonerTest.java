@@ -10,14 +10,39 @@ import static java.lang.Float.valueOf;
 import static java.lang.Integer.valueOf;
 import static java.lang.Long.valueOf;
 import static java.lang.Short.valueOf;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static org.gdejohn.similitude.TypeToken.typeOf;
 import static org.slf4j.Logger.ROOT_LOGGER_NAME;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.testng.annotations.AfterGroups;
 import org.testng.annotations.BeforeClass;
@@ -223,4 +248,1103 @@ public class ClonerTest
 		assertNotSame(clone.numArray, original.numArray);
 		assertEquals(clone, original);
 	}
+	
+	private static class Box
+	{
+		Object value;
+		
+		@SuppressWarnings("unused")
+		Box( )
+		{
+			this(null);
+		}
+		
+		Box(Object value)
+		{
+			this.value = value;
+		}
+	}
+	
+	public static void registerAfterCloning(Cloner cloner)
+	{
+		Box original = new Box(new Box("xyzzy"));
+		Box clone = cloner.toClone(original);
+		
+		assertNotSame(clone, original);
+		assertNotSame(clone.value, original.value);
+		assertEquals(((Box)clone.value).value, "xyzzy");
+		
+		cloner.register(typeOf(Box.class));
+		
+		assertSame(cloner.toClone(original), original);
+		
+		cloner.unregister(typeOf(Box.class));
+		
+		assertNotSame(cloner.toClone(original), original);
+	}
+	
+	private static final class Primitives
+	{
+		private final byte b;
+		private final short s;
+		private final int i;
+		private final long l;
+		private final float f;
+		private final double d;
+		private final char c;
+		private final boolean bool;
+		private final String str;
+		private final EnumType e;
+		private final Object boxed;
+		
+		@SuppressWarnings("unused")
+		Primitives( )
+		{
+			this((byte)0, (short)0, 0, 0L, 0.0f, 0.0d, '\u0000', false, null, null, null);
+		}
+		
+		Primitives(byte b, short s, int i, long l, float f, double d, char c, boolean bool, String str, EnumType e, Object boxed)
+		{
+			this.b = b;
+			this.s = s;
+			this.i = i;
+			this.l = l;
+			this.f = f;
+			this.d = d;
+			this.c = c;
+			this.bool = bool;
+			this.str = str;
+			this.e = e;
+			this.boxed = boxed;
+		}
+	}
+	
+	public static void primitiveFields(Cloner cloner)
+	{
+		Primitives original = new Primitives((byte)1, (short)2, 3, 4L, 5.0f, 6.0d, '7', true, "xyzzy", EnumType.SECOND, new Box("plugh"));
+		Primitives clone = cloner.toClone(original);
+		
+		assertNotSame(clone, original);
+		assertEquals(clone.b, original.b);
+		assertEquals(clone.s, original.s);
+		assertEquals(clone.i, original.i);
+		assertEquals(clone.l, original.l);
+		assertEquals(clone.f, original.f, 0.0f);
+		assertEquals(clone.d, original.d, 0.0d);
+		assertEquals(clone.c, original.c);
+		assertEquals(clone.bool, original.bool);
+		assertSame(clone.str, original.str);
+		assertSame(clone.e, original.e);
+		assertNotSame(clone.boxed, original.boxed);
+	}
+	
+	public static void largePrimitiveArray(Cloner cloner)
+	{
+		double[ ] original = new double[1 << 20];
+		
+		for (int index = 0; index < original.length; index++)
+		{
+			original[index] = index / 3.0d;
+		}
+		
+		double[ ] clone = cloner.toClone(original);
+		
+		assertNotSame(clone, original);
+		assertEquals(clone, original);
+	}
+	
+	public static void immutableArray(Cloner cloner)
+	{
+		String[ ] original = {"xyzzy", null, "plugh"};
+		String[ ] clone = cloner.toClone(original);
+		
+		assertNotSame(clone, original);
+		assertEquals(clone, original);
+		assertSame(clone[0], original[0]);
+		assertSame(clone[2], original[2]);
+		
+		EnumType[ ] enums = {EnumType.SECOND, EnumType.FIRST};
+		EnumType[ ] clonedEnums = cloner.toClone(enums);
+		
+		assertNotSame(clonedEnums, enums);
+		assertEquals(clonedEnums, enums);
+	}
+	
+	public static void mutableArray(Cloner cloner)
+	{
+		Box shared = new Box("xyzzy");
+		Box[ ] original = {shared, null, shared};
+		Box[ ] clone = cloner.toClone(original);
+		
+		assertNotSame(clone, original);
+		assertNotSame(clone[0], shared);
+		assertNull(clone[1]);
+		assertSame(clone[2], clone[0]);
+		assertEquals(clone[0].value, "xyzzy");
+	}
+	
+	public static void deepGraph(Cloner cloner)
+	{
+		final int DEPTH = 200000;
+		
+		Box original = new Box("xyzzy");
+		
+		for (int index = 1; index < DEPTH; index++)
+		{
+			original = new Box(original);
+		}
+		
+		Box clone = cloner.toClone(original);
+		
+		int depth = 1;
+		
+		for (Box box = clone; box.value instanceof Box; box = (Box)box.value)
+		{
+			depth++;
+		}
+		
+		assertNotSame(clone, original);
+		assertEquals(depth, DEPTH);
+	}
+	
+	public static void wideMap(Cloner cloner)
+	{
+		final int SIZE = 1000;
+		
+		HashMap<String, Box> original = new HashMap<String, Box>( );
+		
+		for (int index = 0; index < SIZE; index++)
+		{
+			original.put("key" + index, new Box(index));
+		}
+		
+		for (Cloner.Allocation allocation : Cloner.Allocation.values( ))
+		{
+			cloner.setAllocation(allocation);
+			
+			HashMap<String, Box> clone = cloner.toClone(original);
+			
+			assertNotSame(clone, original);
+			assertEquals(clone.size( ), SIZE);
+			
+			for (int index = 0; index < SIZE; index++)
+			{
+				Box box = clone.get("key" + index);
+				
+				assertNotSame(box, original.get("key" + index));
+				assertEquals(box.value, index);
+			}
+		}
+	}
+	
+	private static final class Tag
+	{
+		int value;
+		
+		Tag(int value)
+		{
+			this.value = value;
+		}
+	}
+	
+	public static void concurrentCloning(final Cloner CLONER) throws Exception
+	{
+		final int THREADS = 8;
+		
+		final TypeToken<Tag> TAG = typeOf(Tag.class);
+		
+		final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS);
+		
+		try
+		{
+			final List<Future<Void>> RESULTS = new ArrayList<Future<Void>>( );
+			
+			for (int thread = 0; thread < THREADS; thread++)
+			{
+				final String VALUE = "xyzzy" + thread;
+				
+				RESULTS.add
+				(
+					EXECUTOR.submit
+					(
+						new Callable<Void>( )
+						{
+							@Override
+							public Void call( )
+							{
+								for (int index = 0; index < 1000; index++)
+								{
+									Tag tag = new Tag(index);
+									Box shared = new Box(tag);
+									Box[ ] original = {shared, new Box(shared), new Box(tag), new Box(VALUE)};
+									Box[ ] clone = CLONER.toClone(original);
+									
+									assertNotSame(clone[0], shared);
+									assertSame(((Box)clone[1].value), clone[0]);
+									assertEquals(clone[3].value, VALUE);
+									
+									/*
+									 * Whether or not Tag was registered when
+									 * this clone started, both references to
+									 * the tag get the same object.
+									 */
+									Tag cloned = (Tag)clone[0].value;
+									assertSame(clone[2].value, cloned);
+									assertEquals(cloned.value, index);
+									
+									if (index % 2 == 0)
+									{
+										CLONER.register(TAG);
+									}
+									else
+									{
+										CLONER.unregister(TAG);
+									}
+								}
+								
+								return null;
+							}
+						}
+					)
+				);
+			}
+			
+			for (Future<Void> result : RESULTS)
+			{
+				result.get( );
+			}
+		}
+		finally
+		{
+			EXECUTOR.shutdown( );
+		}
+		
+		Tag tag = new Tag(4);
+		
+		CLONER.register(TAG);
+		assertSame(CLONER.toClone(new Box(tag)).value, tag);
+		
+		CLONER.unregister(TAG);
+		assertNotSame(CLONER.toClone(new Box(tag)).value, tag);
+	}
+	
+	public static void parallelWideArray(Cloner cloner)
+	{
+		final int LENGTH = 100000;
+		
+		Box[ ] shared = {new Box("foo"), new Box("bar"), new Box("baz")};
+		Box[ ] original = new Box[LENGTH];
+		
+		for (int index = 0; index < LENGTH; index++)
+		{
+			original[index] = new Box(shared[index % shared.length]);
+		}
+		
+		Box[ ] clone = cloner.toCloneInParallel(original);
+		
+		assertNotSame(clone, original);
+		
+		for (int index = 0; index < LENGTH; index++)
+		{
+			assertNotSame(clone[index], original[index]);
+			assertNotSame(clone[index].value, shared[index % shared.length]);
+			assertSame(clone[index].value, clone[index % shared.length].value);
+		}
+		
+		assertEquals(((Box)clone[1].value).value, "bar");
+	}
+	
+	public static void parallelForest(Cloner cloner)
+	{
+		final int TREES = 64;
+		final int DEPTH = 1000;
+		
+		Object[ ] original = new Object[TREES];
+		
+		for (int tree = 0; tree < TREES; tree++)
+		{
+			Box root = new Box(tree);
+			
+			for (int depth = 1; depth < DEPTH; depth++)
+			{
+				root = new Box(root);
+			}
+			
+			original[tree] = root;
+		}
+		
+		original[TREES - 1] = original;
+		
+		Object[ ] clone = cloner.toCloneInParallel(original);
+		
+		assertSame(clone[TREES - 1], clone);
+		
+		for (int tree = 0; tree < TREES - 1; tree++)
+		{
+			Object value = clone[tree];
+			
+			for (int depth = 0; depth < DEPTH; depth++)
+			{
+				assertNotSame(value, original[tree]);
+				value = ((Box)value).value;
+			}
+			
+			assertEquals(value, tree);
+		}
+	}
+	
+	private static final class Reluctant
+	{
+		static int constructed = 0;
+		
+		final int value;
+		
+		Reluctant(int value)
+		{
+			if (value == 0)
+			{
+				throw new IllegalArgumentException( );
+			}
+			
+			constructed++;
+			
+			this.value = value;
+		}
+	}
+	
+	public static void rawAllocation(Cloner cloner)
+	{
+		Reluctant original = new Reluctant(4);
+		int constructed = Reluctant.constructed;
+		
+		try
+		{
+			cloner.toClone(original);
+			throw new AssertionError("Constructor should have failed.");
+		}
+		catch (CloningFailedException e)
+		{
+			assertEquals(Reluctant.constructed, constructed);
+		}
+		
+		cloner.setAllocation(Cloner.Allocation.RAW);
+		assertSame(cloner.getAllocation( ), Cloner.Allocation.RAW);
+		
+		Reluctant clone = cloner.toClone(original);
+		assertNotSame(clone, original);
+		assertEquals(clone.value, original.value);
+		assertEquals(Reluctant.constructed, constructed);
+		
+		Box box = cloner.toClone(new Box(original));
+		assertNotSame(box.value, original);
+		assertEquals(((Reluctant)box.value).value, original.value);
+		assertEquals(Reluctant.constructed, constructed);
+	}
+	
+	public static void immutableClasses(Cloner cloner)
+	{
+		assertTrue(cloner.isImmutable(String.class));
+		assertTrue(cloner.isImmutable(typeOf(String.class)));
+		assertFalse(cloner.isImmutable(Box.class));
+		assertFalse(cloner.isImmutable((Class<?>)null));
+		assertFalse(cloner.isImmutable((TypeToken<?>)null));
+		
+		assertTrue(cloner.register(typeOf(Box.class)));
+		assertTrue(cloner.isImmutable(Box.class));
+		assertTrue(cloner.isImmutable(typeOf(Box.class)));
+		
+		TypeToken<List<String>> listOfStrings = new TypeToken<List<String>>( ) { };
+		
+		assertTrue(cloner.register(listOfStrings));
+		assertTrue(cloner.isImmutable(listOfStrings));
+		assertFalse(cloner.isImmutable(List.class));
+		
+		assertTrue(cloner.unregister(typeOf(Box.class)));
+		assertFalse(cloner.isImmutable(Box.class));
+		
+		assertTrue(cloner.reset( ));
+		assertFalse(cloner.isImmutable(listOfStrings));
+		assertTrue(cloner.isImmutable(Integer.class));
+	}
+	
+	private static final class Point
+	{
+		final int x;
+		
+		final int y;
+		
+		final Point origin;
+		
+		Point(int x, int y, Point origin)
+		{
+			this.x = x;
+			this.y = y;
+			this.origin = origin;
+		}
+	}
+	
+	private static final class Money
+	{
+		final BigDecimal amount;
+		
+		final LocalDate date;
+		
+		final int[ ] history;
+		
+		@SuppressWarnings("unused")
+		Money( )
+		{
+			this(null, null, null);
+		}
+		
+		Money(BigDecimal amount, LocalDate date, int[ ] history)
+		{
+			this.amount = amount;
+			this.date = date;
+			this.history = history;
+		}
+	}
+	
+	public static void inferredImmutability(Cloner cloner)
+	{
+		Point point = new Point(1, 2, new Point(0, 0, null));
+		Money money = new Money(new BigDecimal("1.50"), LocalDate.of(2000, 1, 1), new int[ ] {1, 2});
+		Box box = new Box(point);
+		
+		assertFalse(cloner.isInferringImmutability( ));
+		assertNotSame(cloner.toClone(point), point);
+		
+		cloner.setInferringImmutability(true);
+		assertTrue(cloner.isInferringImmutability( ));
+		
+		assertSame(cloner.toClone(point), point);
+		assertSame(cloner.toClone(money.date), money.date);
+		assertSame(cloner.toClone(money.amount), money.amount);
+		
+		Box boxClone = cloner.toClone(box);
+		assertNotSame(boxClone, box);
+		assertSame(boxClone.value, point);
+		
+		Money moneyClone = cloner.toClone(money);
+		assertNotSame(moneyClone, money);
+		assertNotSame(moneyClone.history, money.history);
+		assertSame(moneyClone.amount, money.amount);
+		assertSame(moneyClone.date, money.date);
+		
+		cloner.setInferringImmutability(false);
+		assertNotSame(cloner.toClone(point), point);
+	}
+	
+	@SuppressWarnings("serial")
+	public static class MutableDecimal extends BigDecimal
+	{
+		public int[ ] state = {1};
+		
+		public MutableDecimal( )
+		{
+			super("1.50");
+		}
+	}
+	
+	static final class Amount
+	{
+		final BigDecimal value;
+		
+		Amount(BigDecimal value)
+		{
+			this.value = value;
+		}
+	}
+	
+	public static void inferredImmutabilityOfSubclasses(Cloner cloner)
+	{
+		cloner.setInferringImmutability(true);
+		cloner.setAllocation(Cloner.Allocation.RAW); // The builder can't reach BigDecimal's constructors unless java.math is open.
+		
+		MutableDecimal decimal = new MutableDecimal( );
+		Amount amount = new Amount(decimal);
+		
+		try
+		{
+			MutableDecimal decimalClone = cloner.toClone(decimal);
+			
+			assertNotSame(decimalClone, decimal);
+			assertNotSame(decimalClone.state, decimal.state);
+			assertEquals(decimalClone.state[0], 1);
+			
+			Amount amountClone = cloner.toClone(amount);
+			
+			assertNotSame(amountClone, amount);
+			assertNotSame(amountClone.value, decimal);
+		}
+		catch (CloningFailedException e)
+		{ // Fields of BigDecimal can't be copied unless java.math is open, but at least they aren't shared.
+			assertTrue(e.getMessage( ).contains("BigDecimal"), e.getMessage( ));
+		}
+		
+		BigDecimal plain = new BigDecimal("2.50");
+		
+		assertSame(cloner.toClone(plain), plain);
+		assertSame(cloner.toClone(new Amount(plain)).value, plain);
+	}
+	
+	static class Descending implements Comparator<String>
+	{
+		@Override
+		public int compare(String first, String second)
+		{
+			return second.compareTo(first);
+		}
+	}
+	
+	public static void coreCollections(Cloner cloner)
+	{
+		Box shared = new Box(4);
+		
+		ArrayList<Object> arrayList = new ArrayList<Object>( );
+		LinkedList<Object> linkedList = new LinkedList<Object>( );
+		ArrayDeque<Object> arrayDeque = new ArrayDeque<Object>( );
+		HashMap<String, Object> hashMap = new HashMap<String, Object>( );
+		TreeMap<String, Object> treeMap = new TreeMap<String, Object>(new Descending( ));
+		
+		arrayList.add(shared);
+		arrayList.add(null);
+		arrayList.add(arrayList);
+		linkedList.add(shared);
+		linkedList.add("xyzzy");
+		arrayDeque.add(shared);
+		arrayDeque.add(linkedList);
+		hashMap.put("shared", shared);
+		hashMap.put(null, arrayDeque);
+		treeMap.put("a", shared);
+		treeMap.put("b", hashMap);
+		
+		List<Object> original = new ArrayList<Object>(Arrays.<Object>asList(arrayList, linkedList, arrayDeque, hashMap, treeMap));
+		List<Object> clone = cloner.toClone(original);
+		
+		@SuppressWarnings("unchecked")
+		ArrayList<Object> arrayListClone = (ArrayList<Object>)clone.get(0);
+		@SuppressWarnings("unchecked")
+		LinkedList<Object> linkedListClone = (LinkedList<Object>)clone.get(1);
+		@SuppressWarnings("unchecked")
+		ArrayDeque<Object> arrayDequeClone = (ArrayDeque<Object>)clone.get(2);
+		@SuppressWarnings("unchecked")
+		HashMap<String, Object> hashMapClone = (HashMap<String, Object>)clone.get(3);
+		@SuppressWarnings("unchecked")
+		TreeMap<String, Object> treeMapClone = (TreeMap<String, Object>)clone.get(4);
+		
+		Box sharedClone = (Box)arrayListClone.get(0);
+		assertNotSame(sharedClone, shared);
+		assertEquals(sharedClone.value, 4);
+		
+		assertEquals(arrayListClone.size( ), 3);
+		assertNull(arrayListClone.get(1));
+		assertSame(arrayListClone.get(2), arrayListClone);
+		
+		assertNotSame(linkedListClone, linkedList);
+		assertSame(linkedListClone.getFirst( ), sharedClone);
+		assertEquals(linkedListClone.getLast( ), "xyzzy");
+		
+		assertNotSame(arrayDequeClone, arrayDeque);
+		assertSame(arrayDequeClone.peekFirst( ), sharedClone);
+		assertSame(arrayDequeClone.peekLast( ), linkedListClone);
+		
+		assertNotSame(hashMapClone, hashMap);
+		assertSame(hashMapClone.get("shared"), sharedClone);
+		assertSame(hashMapClone.get(null), arrayDequeClone);
+		
+		assertNotSame(treeMapClone, treeMap);
+		assertNotSame(treeMapClone.comparator( ), treeMap.comparator( ));
+		assertSame(treeMapClone.comparator( ).getClass( ), Descending.class);
+		assertEquals(treeMapClone.firstKey( ), "b");
+		assertSame(treeMapClone.get("a"), sharedClone);
+		assertSame(treeMapClone.get("b"), hashMapClone);
+	}
+	
+	public static void hashMapCapacity(Cloner cloner)
+	{
+		HashMap<Integer, Box> original = new HashMap<Integer, Box>(1024, 0.5f);
+		
+		for (int key : new int[ ] {0, 64, 1, 65})
+		{
+			original.put(key, new Box(key));
+		}
+		
+		HashMap<Integer, Box> clone = cloner.toClone(original);
+		
+		assertEquals(clone.keySet( ), original.keySet( ));
+		
+		if (Cloner.HASH_MAP_TABLE != null)
+		{ // Keys 0 and 64, and 1 and 65, only share buckets in a smaller table.
+			assertEquals(new ArrayList<Integer>(clone.keySet( )), Arrays.asList(0, 1, 64, 65));
+		}
+		
+		assertNotSame(clone.get(64), original.get(64));
+		assertEquals(clone.get(64).value, 64);
+	}
+	
+	public static void batchCloning(Cloner cloner)
+	{
+		Box shared = new Box(4);
+		Box first = new Box(shared);
+		Box second = new Box(shared);
+		
+		assertNotSame(cloner.toClone(first).value, cloner.toClone(second).value);
+		
+		List<Box> list = cloner.toCloneAll(Arrays.asList(first, second, first, null));
+		
+		assertEquals(list.size( ), 4);
+		assertNotSame(list.get(0), first);
+		assertNotSame(list.get(0).value, shared);
+		assertSame(list.get(0).value, list.get(1).value);
+		assertSame(list.get(0), list.get(2));
+		assertNull(list.get(3));
+		assertEquals(((Box)list.get(1).value).value, 4);
+		
+		Box[ ] original = {first, second};
+		Box[ ] array = cloner.toCloneAll(original);
+		
+		assertNotSame(array, original);
+		assertSame(array.getClass( ), Box[ ].class);
+		assertNotSame(array[1], second);
+		assertSame(array[0].value, array[1].value);
+	}
+	
+	public static void streamCloning(Cloner cloner)
+	{
+		Box shared = new Box(4);
+		List<Box> original = new ArrayList<Box>( );
+		
+		for (int index = 0; index < 6; index++)
+		{
+			original.add(new Box(shared));
+		}
+		
+		List<Box> independent = cloner.toCloneStream(original.stream( )).collect(Collectors.<Box>toList( ));
+		
+		assertEquals(independent.size( ), 6);
+		assertNotSame(independent.get(0), original.get(0));
+		assertNotSame(independent.get(0).value, independent.get(1).value);
+		
+		List<Box> windowed = cloner.toCloneStream(original.stream( ), 4).collect(Collectors.<Box>toList( ));
+		
+		assertSame(windowed.get(0).value, windowed.get(3).value);
+		assertNotSame(windowed.get(3).value, windowed.get(4).value);
+		assertSame(windowed.get(4).value, windowed.get(5).value);
+		assertNotSame(windowed.get(5).value, shared);
+		
+		List<Integer> parallel = new ArrayList<Integer>( );
+		
+		for (int index = 0; index < 10000; index++)
+		{
+			parallel.add(index);
+		}
+		
+		List<Integer> clones = cloner.toCloneStream(parallel.parallelStream( ), 100).collect(Collectors.<Integer>toList( ));
+		
+		assertEquals(clones, parallel);
+	}
+	
+	static class Lists
+	{
+		List<Box> first;
+		
+		List<Box> second;
+		
+		Box direct;
+	}
+	
+	public static void lazyCloning(Cloner cloner)
+	{
+		Box shared = new Box(4);
+		Lists original = new Lists( );
+		original.first = new ArrayList<Box>(Arrays.asList(shared));
+		original.second = new ArrayList<Box>(Arrays.asList(shared, new Box(2)));
+		original.direct = new Box(shared);
+		
+		Lists clone = cloner.toLazyClone(original);
+		
+		assertNotSame(clone, original);
+		assertTrue(Proxy.isProxyClass(clone.first.getClass( )));
+		assertTrue(Proxy.isProxyClass(clone.second.getClass( )));
+		assertNotSame(clone.direct, original.direct);
+		
+		Box firstShared = clone.first.get(0);
+		
+		assertNotSame(firstShared, shared);
+		assertSame(firstShared, clone.direct.value);
+		assertEquals(firstShared.value, 4);
+		assertSame(clone.second.get(0), firstShared);
+		assertEquals(clone.second.size( ), 2);
+		assertEquals(clone.second.get(1).value, 2);
+		
+		clone.first.clear( );
+		
+		assertEquals(original.first.size( ), 1);
+		
+		@SuppressWarnings("unchecked")
+		List<Box> root = cloner.toLazyClone(original.second, List.class);
+		
+		assertTrue(Proxy.isProxyClass(root.getClass( )));
+		assertNotSame(root.get(1), original.second.get(1));
+		assertEquals(root.get(1).value, 2);
+	}
+	
+	interface Hidden
+	{
+		int value( );
+	}
+	
+	static class Visible implements Hidden
+	{
+		@Override
+		public int value( )
+		{
+			return 7;
+		}
+	}
+	
+	public interface Counter
+	{
+		int next( );
+	}
+	
+	static class Counting implements Counter
+	{
+		int count = 0;
+		
+		@Override
+		public int next( )
+		{
+			return ++count;
+		}
+	}
+	
+	static class Aliases
+	{
+		List<Box> list;
+		
+		ArrayList<Box> arrayList;
+		
+		Hidden hidden;
+		
+		Counter counter;
+		
+		Counter sameCounter;
+	}
+	
+	public static void lazyCloningIdentity(Cloner cloner)
+	{
+		ArrayList<Box> shared = new ArrayList<Box>(Arrays.asList(new Box(1)));
+		Counting counting = new Counting( );
+		Aliases original = new Aliases( );
+		original.list = shared;
+		original.arrayList = shared;
+		original.hidden = new Visible( );
+		original.counter = counting;
+		original.sameCounter = counting;
+		
+		Aliases clone = cloner.toLazyClone(original);
+		
+		assertSame(clone.list, clone.arrayList, "The proxy in list is replaced once arrayList is cloned.");
+		assertNotSame(clone.arrayList, shared);
+		assertFalse(Proxy.isProxyClass(clone.hidden.getClass( )), "Package-private interfaces aren't proxied.");
+		assertEquals(clone.hidden.value( ), 7);
+		
+		Counter counter = clone.counter;
+		
+		assertTrue(Proxy.isProxyClass(counter.getClass( )));
+		assertSame(clone.sameCounter, counter);
+		assertTrue(counter.equals(counter));
+		assertEquals(counter.next( ), 1);
+		assertEquals(counting.count, 0);
+		assertSame(clone.counter, clone.sameCounter);
+		assertFalse(Proxy.isProxyClass(clone.counter.getClass( )));
+		assertEquals(clone.counter.next( ), 2);
+		assertEquals(counter.hashCode( ), clone.counter.hashCode( ));
+		assertEquals(counter.toString( ), clone.counter.toString( ));
+		
+		Hidden root = cloner.toLazyClone((Hidden)new Visible( ), Hidden.class);
+		
+		assertFalse(Proxy.isProxyClass(root.getClass( )));
+		assertEquals(root.value( ), 7);
+	}
+	
+	public static void incrementalSnapshots(Cloner cloner)
+	{
+		Box unchanged = new Box(new int[ ] {1, 2});
+		Box changing = new Box(4);
+		List<Box> list = new ArrayList<Box>(Arrays.asList(unchanged, changing));
+		Box original = new Box(list);
+		
+		Cloner.Incremental snapshots = cloner.newIncremental( );
+		
+		Box first = snapshots.toClone(original);
+		
+		assertNotSame(first, original);
+		assertSame(snapshots.toClone(original), first);
+		
+		changing.value = 5;
+		
+		Box second = snapshots.toClone(original);
+		
+		@SuppressWarnings("unchecked")
+		List<Box> firstList = (List<Box>)first.value;
+		@SuppressWarnings("unchecked")
+		List<Box> secondList = (List<Box>)second.value;
+		
+		assertNotSame(second, first);
+		assertNotSame(secondList, firstList);
+		assertSame(secondList.get(0), firstList.get(0));
+		assertNotSame(secondList.get(1), firstList.get(1));
+		assertEquals(firstList.get(1).value, 4);
+		assertEquals(secondList.get(1).value, 5);
+		
+		((int[ ])unchanged.value)[1] = 3;
+		list.add(new Box(6));
+		
+		Box third = snapshots.toClone(original);
+		
+		@SuppressWarnings("unchecked")
+		List<Box> thirdList = (List<Box>)third.value;
+		
+		assertNotSame(thirdList.get(0), secondList.get(0));
+		assertEquals(((int[ ])thirdList.get(0).value)[1], 3);
+		assertEquals(((int[ ])secondList.get(0).value)[1], 2);
+		assertSame(thirdList.get(1), secondList.get(1));
+		assertEquals(thirdList.size( ), 3);
+		
+		snapshots.forget( );
+		
+		assertNotSame(snapshots.toClone(original), third);
+	}
+	
+	public static void copyingInto(Cloner cloner)
+	{
+		Box[ ] boxes = {new Box(1), new Box(2)};
+		List<Box> list = new ArrayList<Box>(Arrays.asList(boxes));
+		Map<String, Box> map = new HashMap<String, Box>( );
+		map.put("a", boxes[0]);
+		map.put("b", new Box(new int[ ] {1, 2}));
+		Box source = new Box(new Object[ ] {boxes, list, map});
+		
+		Box target = cloner.toClone(source);
+		Object[ ] targetFields = (Object[ ])target.value;
+		Box[ ] targetBoxes = (Box[ ])targetFields[0];
+		Box targetFirst = targetBoxes[0];
+		@SuppressWarnings("unchecked")
+		List<Box> targetList = (List<Box>)targetFields[1];
+		@SuppressWarnings("unchecked")
+		Map<String, Box> targetMap = (Map<String, Box>)targetFields[2];
+		int[ ] targetArray = (int[ ])targetMap.get("b").value;
+		
+		boxes[0].value = 3;
+		list.add(new Box(4));
+		map.remove("a");
+		map.put("c", new Box(5));
+		((int[ ])map.get("b").value)[1] = 6;
+		
+		cloner.copyInto(source, target);
+		
+		assertSame(target.value, targetFields);
+		assertSame(targetFields[0], targetBoxes);
+		assertSame(targetBoxes[0], targetFirst);
+		assertEquals(targetFirst.value, 3);
+		assertNotSame(targetFirst, boxes[0]);
+		assertSame(targetFields[1], targetList);
+		assertEquals(targetList.size( ), 3);
+		assertSame(targetList.get(0), targetFirst);
+		assertEquals(targetList.get(2).value, 4);
+		assertSame(targetFields[2], targetMap);
+		assertEquals(targetMap.keySet( ), map.keySet( ));
+		assertSame(targetMap.get("b").value, targetArray);
+		assertEquals(targetArray[1], 6);
+		assertEquals(targetMap.get("c").value, 5);
+		
+		Box aliased = new Box( );
+		Box[ ] aliasing = {aliased, aliased};
+		cloner.copyInto(new Box[ ] {new Box(7), new Box(8)}, aliasing);
+		
+		assertNotSame(aliasing[0], aliasing[1]);
+		assertEquals(aliasing[0].value, 7);
+		assertEquals(aliasing[1].value, 8);
+		
+		try
+		{
+			cloner.copyInto(new int[1], new int[2]);
+			throw new AssertionError("Arrays of different lengths should have been rejected.");
+		}
+		catch (IllegalArgumentException e)
+		{
+			assertNotNull(e.getMessage( ));
+		}
+	}
+	
+	public static void snapshotRestore(Cloner cloner)
+	{
+		int[ ] numbers = {1, 2};
+		Box removed = new Box("removed");
+		List<Box> list = new ArrayList<Box>(Arrays.asList(removed));
+		Map<String, Object> map = new HashMap<String, Object>( );
+		map.put("numbers", numbers);
+		map.put("list", list);
+		Box original = new Box(map);
+		
+		Cloner.Snapshot<Box> snapshot = cloner.toSnapshot(original);
+		
+		assertSame(snapshot.getRoot( ), original);
+		
+		numbers[0] = 3;
+		removed.value = "changed";
+		list.clear( );
+		list.add(new Box("added"));
+		map.put("extra", "value");
+		original.value = null;
+		
+		assertSame(snapshot.restore( ), original);
+		assertSame(original.value, map);
+		assertEquals(map.size( ), 2);
+		assertSame(map.get("numbers"), numbers);
+		assertEquals(numbers[0], 1);
+		assertSame(map.get("list"), list);
+		assertEquals(list.size( ), 1);
+		assertSame(list.get(0), removed);
+		assertEquals(removed.value, "removed");
+		
+		numbers[1] = 4;
+		snapshot.restore( );
+		
+		assertEquals(numbers[1], 2);
+	}
+	
+	public static void sizeHint(Cloner cloner)
+	{
+		Box[ ] large = new Box[10000];
+		for (int index = 0; index < large.length; index++)
+		{
+			large[index] = new Box(index % 2 == 0 ? new Box(index) : large[index - 1]);
+		}
+		
+		Box[ ] clone = cloner.toClone(large, 20000);
+		
+		assertNotSame(clone, large);
+		for (int index = 1; index < large.length; index += 2)
+		{
+			assertSame(clone[index].value, clone[index - 1]);
+			assertEquals(((Box)clone[index - 1].value).value, index - 1);
+		}
+		
+		Box small = new Box(new Box(4));
+		Box smallClone = cloner.toClone(small);
+		
+		assertNotSame(smallClone.value, small.value);
+		assertEquals(((Box)smallClone.value).value, 4);
+		assertEquals(cloner.toClone(large).length, large.length);
+	}
+	
+	public static void tracing(Cloner cloner)
+	{
+		final List<Object> visited = new ArrayList<Object>( );
+		final List<Field> copied = new ArrayList<Field>( );
+		
+		Tracer tracer =
+		(
+			new Tracer( )
+			{
+				@Override
+				public synchronized void objectVisited(Object original, Object clone)
+				{
+					visited.add(original);
+				}
+				
+				@Override
+				public synchronized void fieldCopied(Object clone, Field field, Object value)
+				{
+					copied.add(field);
+				}
+			}
+		);
+		
+		Box inner = new Box("value");
+		Box outer = new Box(inner);
+		
+		Tracer previous = Tracing.setTracer(tracer);
+		try
+		{
+			assertSame(Tracing.getTracer( ), tracer);
+			cloner.toClone(outer);
+		}
+		finally
+		{
+			Tracing.setTracer(previous);
+		}
+		
+		assertTrue(visited.contains(outer));
+		assertTrue(visited.contains(inner));
+		assertTrue(visited.contains("value"));
+		assertFalse(copied.isEmpty( ));
+		for (Field field : copied)
+		{
+			assertEquals(field.getName( ), "value");
+		}
+		
+		visited.clear( );
+		cloner.toClone(outer);
+		assertTrue(visited.isEmpty( ));
+	}
+
+	
+	public static void metrics(Cloner cloner) throws Exception
+	{
+		CloneMetrics metrics = new CloneMetrics( );
+		
+		Box shared = new Box(new int[ ]{1, 2, 3});
+		Box[ ] original = {shared, shared, new Box("value")};
+		
+		Tracer previous = Tracing.setTracer(metrics);
+		try
+		{
+			cloner.toClone(original);
+		}
+		finally
+		{
+			Tracing.setTracer(previous);
+		}
+		
+		CloneMetrics.Snapshot snapshot = metrics.snapshot( );
+		
+		assertEquals(snapshot.getObjectsCloned( ), 4);
+		assertEquals(snapshot.getArraysCloned( ), 2);
+		assertEquals(snapshot.getBytesCopied( ), 12);
+		assertEquals(snapshot.getIdentityHits( ), 1);
+		assertEquals(snapshot.getShallowCopies( ), 1);
+		assertEquals(snapshot.getCloneCounts( ).get(Box.class.getName( )), Long.valueOf(2));
+		assertEquals(snapshot.getCloneCounts( ).get(int[ ].class.getName( )), Long.valueOf(1));
+		
+		long[ ] histogram = snapshot.getLatencyHistograms( ).get(Box[ ].class.getName( ));
+		long total = 0;
+		for (long count : histogram)
+		{
+			total += count;
+		}
+		assertEquals(total, 1);
+		assertTrue(snapshot.getTypeCacheHitRate( ) >= 0 && snapshot.getTypeCacheHitRate( ) <= 1);
+		
+		ObjectName name = metrics.register( );
+		try
+		{
+			MBeanServer server = getPlatformMBeanServer( );
+			assertEquals(server.getAttribute(name, "ObjectsCloned"), 4L);
+			server.invoke(name, "reset", null, null);
+			assertEquals(metrics.getObjectsCloned( ), 0);
+		}
+		finally
+		{
+			metrics.unregister( );
+		}
+		
+		cloner.toClone(original);
+		assertEquals(metrics.getObjectsVisited( ), 0);
+	}
+
 }
\ No newline at end of file
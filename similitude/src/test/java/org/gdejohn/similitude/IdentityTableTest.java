@@ -0,0 +1,159 @@
+package org.gdejohn.similitude;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+@Test
+@SuppressWarnings("javadoc")
+public class IdentityTableTest
+{
+	public static void identity( )
+	{
+		IdentityTable table = new IdentityTable( );
+		
+		String key = new String("key");
+		Object value = new Object( );
+		
+		assertNull(table.put(key, value));
+		assertSame(table.get(key), value);
+		assertNull(table.get(new String("key")));
+		assertSame(table.put(key, key), value);
+		assertSame(table.get(key), key);
+		assertEquals(table.size( ), 1);
+	}
+	
+	public static void growth( )
+	{
+		IdentityTable table = new IdentityTable( );
+		
+		Object[ ] keys = new Object[1000];
+		
+		for (int index = 0; index < keys.length; index++)
+		{
+			keys[index] = new Object( );
+			
+			table.put(keys[index], Integer.valueOf(index));
+		}
+		
+		assertEquals(table.size( ), keys.length);
+		
+		for (int index = 0; index < keys.length; index++)
+		{
+			assertEquals(table.get(keys[index]), Integer.valueOf(index));
+		}
+	}
+	
+	public static void presizing( )
+	{
+		assertEquals(new IdentityTable( ).capacity( ), 16);
+		assertEquals(new IdentityTable(100).capacity( ), 256);
+		
+		IdentityTable table = new IdentityTable(1000);
+		
+		int capacity = table.capacity( );
+		
+		for (int index = 0; index < 1000; index++)
+		{
+			table.put(new Object( ), null);
+		}
+		
+		assertEquals(table.capacity( ), capacity);
+	}
+	
+	public static void largeExpectedSize( )
+	{
+		/*
+		 * Three halves of this overflow an int, which used to give the minimum
+		 * capacity instead of the maximum.
+		 */
+		assertEquals(IdentityTable.capacityFor(Integer.MAX_VALUE / 4 * 3), 1 << 29);
+		assertEquals(IdentityTable.capacityFor(Integer.MAX_VALUE), 1 << 29);
+		assertEquals(IdentityTable.capacityFor(1 << 20), 1 << 21);
+	}
+	
+	public static void reuse( )
+	{
+		IdentityTable first = IdentityTable.acquire(0);
+		
+		assertNotSame(IdentityTable.acquire(0), first, "Nested traversals need their own tables.");
+		
+		for (int index = 0; index < 100; index++)
+		{
+			first.put(new Object( ), null);
+		}
+		
+		int capacity = first.capacity( );
+		
+		IdentityTable.release(first);
+		
+		IdentityTable second = IdentityTable.acquire(0);
+		
+		assertSame(second, first);
+		assertTrue(second.isEmpty( ));
+		assertEquals(second.capacity( ), capacity);
+		
+		IdentityTable.release(second);
+		
+		assertSame(IdentityTable.acquire(200), first);
+		assertTrue(first.capacity( ) >= 300);
+		
+		IdentityTable.release(first);
+	}
+	
+	public static void shrinking( )
+	{
+		IdentityTable table = IdentityTable.acquire(10000);
+		
+		int capacity = table.capacity( );
+		
+		table.put(new Object( ), null);
+		
+		IdentityTable.release(table);
+		
+		assertSame(IdentityTable.acquire(0), table);
+		assertTrue(table.capacity( ) < capacity);
+		assertEquals(table.capacity( ), 16);
+		
+		for (int index = 0; index < 5000; index++)
+		{
+			table.put(new Object( ), null);
+		}
+		
+		capacity = table.capacity( );
+		
+		IdentityTable.release(table);
+		
+		assertSame(IdentityTable.acquire(0), table);
+		assertEquals(table.capacity( ), capacity, "A table that was mostly used isn't shrunk.");
+		
+		IdentityTable.release(table);
+		
+		IdentityTable large = IdentityTable.acquire(IdentityTable.RETAINED_CAPACITY);
+		
+		assertSame(large, table);
+		assertTrue(large.capacity( ) > IdentityTable.RETAINED_CAPACITY);
+		
+		for (int index = 0; index < IdentityTable.RETAINED_CAPACITY; index++)
+		{
+			large.put(new Object( ), null);
+		}
+		
+		IdentityTable.release(large);
+		
+		IdentityTable next = IdentityTable.acquire(0);
+		
+		assertNotSame(next, large, "A table past the retained capacity isn't kept, even if it was full.");
+		assertEquals(next.capacity( ), 16);
+		
+		IdentityTable.release(next);
+		
+		assertSame(IdentityTable.acquire(0), next);
+		
+		IdentityTable.release(next);
+	}
+}
@@ -21,6 +21,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -243,6 +244,36 @@ public class TypeTokenTest
 		assertEquals(token.getTypeArgument(Foo.class.getTypeParameters( )[0]).getRawType( ), String.class);
 	}
 	
+	public static void canonicalClassType( )
+	{
+		assertSame(typeOf(String.class), typeOf(String.class));
+		assertSame(typeOf((Type)String.class), typeOf(String.class));
+		assertSame(typeOf("xyzzy"), typeOf(String.class));
+	}
+	
+	public static void canonicalParameterizedType( )
+	{
+		class Foo<F> { }
+		
+		class Bar
+		{
+			@SuppressWarnings("unused")
+			Foo<List<String>> first;
+			
+			@SuppressWarnings("unused")
+			Foo<List<String>> second;
+		}
+		
+		Field[ ] fields = Bar.class.getDeclaredFields( );
+		Type first = fields[0].getGenericType( );
+		Type second = fields[1].getGenericType( );
+		TypeToken<?> token = typeOf(first);
+		
+		assertSame(typeOf(first), token);
+		assertSame(typeOf(second), token);
+		assertEquals(new TypeToken<Foo<List<String>>>( ) { }, token);
+	}
+	
 	public static void superTypeToken( )
 	{
 		TypeToken<Map<Integer, Set<? extends char[ ]>>> token = new TypeToken<Map<Integer, Set<? extends char[ ]>>>( ) { };
@@ -664,6 +695,87 @@ public class TypeTokenTest
 		assertFalse(baz.isInstance(object));
 	}
 	
+	public static void inferencePlanFields( )
+	{
+		@SuppressWarnings("unused")
+		class Mixed<M>
+		{
+			M value;
+			
+			List<? extends M> values;
+			
+			String name;
+			
+			int count;
+			
+			LinkedList<String> names = new LinkedList<String>( );
+			
+			Mixed(M value)
+			{
+				this.value = value;
+			}
+		}
+		
+		List<String> fields = new ArrayList<String>( );
+		
+		for (FieldAccessor accessor : TypeToken.INFERENCE_PLANS.get(Mixed.class).FIELDS)
+		{
+			fields.add(accessor.FIELD.getName( ));
+		}
+		
+		assertEquals(fields, asList("value", "values"));
+		assertEquals(TypeToken.INFERENCE_PLANS.get(String.class).FIELDS.length, 0);
+		
+		/*
+		 * Inferring the type of a LinkedList fails if java.util isn't open,
+		 * which doesn't matter, since it can't affect the type of Mixed.
+		 */
+		assertEquals(typeOf(new Mixed<String>("xyzzy")), new TypeToken<Mixed<String>>( ) { });
+	}
+	
+	public static void nestedGenericTypes( )
+	{
+		@SuppressWarnings("unused")
+		class Box<B>
+		{
+			B value;
+			
+			Box(B value)
+			{
+				this.value = value;
+			}
+		}
+		
+		@SuppressWarnings("unused")
+		class Pair<F, S>
+		{
+			F first;
+			
+			S second;
+			
+			String label = "pair";
+			
+			Pair(F first, S second)
+			{
+				this.first = first;
+				
+				this.second = second;
+			}
+		}
+		
+		Pair<Box<String>, Pair<Integer, Box<Long>>> pair =
+		(
+			new Pair<Box<String>, Pair<Integer, Box<Long>>>
+			(
+				new Box<String>("xyzzy"),
+				new Pair<Integer, Box<Long>>(valueOf(1), new Box<Long>(2L))
+			)
+		);
+		
+		assertEquals(typeOf(pair), new TypeToken<Pair<Box<String>, Pair<Integer, Box<Long>>>>( ) { });
+		assertEquals(typeOf(new Box<Box<Integer>[ ]>(new Box[ ] {new Box<Integer>(valueOf(3))})), new TypeToken<Box<Box<Integer>[ ]>>( ) { });
+	}
+	
 	public static void linkedList( )
 	{
 		class Zero { }